@@ -0,0 +1,66 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares stepping time by {@link TimeMachine#advance(Duration)} with the {@code travelAt(instant.plus(step))} chain,
+ * as a discrete-event simulation loop would do.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdvanceBenchmark {
+
+    private static final Duration STEP = Duration.ofMillis(1);
+
+    private Instant instant;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        instant = Instant.parse("2021-03-28T00:30:00Z");
+        TimeMachine.travelAt(instant);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Benchmark
+    public long travelAtChain() {
+        instant = TimeMachine.travelAt(instant.plus(STEP));
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Benchmark
+    public long advance() {
+        TimeMachine.advance(STEP);
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Benchmark
+    public long advanceNanos() {
+        TimeMachine.advanceNanos(1_000_000L);
+        return TimeMachine.epochMilliOfNow();
+    }
+}
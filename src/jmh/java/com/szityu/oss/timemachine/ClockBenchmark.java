@@ -0,0 +1,85 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TimeMachine#clock()} with the usual anonymous clock wrapping {@link TimeMachine#instantOfNow()}, as
+ * third-party code reads them, mostly by {@link Clock#millis()}.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+
+    @Param({"noop", "traveled"})
+    public String mode;
+
+    private Clock timeMachineClock;
+    private Clock wrappingClock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("traveled".equals(mode)) {
+            TimeMachine.travelAt(Instant.parse("2021-03-28T00:30:00Z"));
+        }
+        timeMachineClock = TimeMachine.clock();
+        wrappingClock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return TimeMachine.zoneOfNow();
+            }
+
+            @Override
+            public Clock withZone(final ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return TimeMachine.instantOfNow();
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Benchmark
+    public long timeMachineClockMillis() {
+        return timeMachineClock.millis();
+    }
+
+    @Benchmark
+    public long wrappingClockMillis() {
+        return wrappingClock.millis();
+    }
+
+    @Benchmark
+    public long ticker() {
+        return TimeMachine.ticker().getAsLong();
+    }
+}
@@ -0,0 +1,88 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the conversion of a batch of epoch millis to the epoch day, hour and day of week by {@link EpochCalendar},
+ * sequentially and in parallel, with converting them one by one by {@link Instant#atZone(ZoneId)}. The timestamps are
+ * either ascending within a week around a transition ({@code sorted}), or random within two years ({@code random}).
+ * The scores are per timestamp.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EpochCalendarBenchmark {
+
+    private static final int SIZE = 1 << 20;
+
+    @Param({"sorted", "random"})
+    public String order;
+
+    private final ZoneId zone = ZoneId.of("Europe/Budapest");
+    private final long[] epochMillis = new long[SIZE];
+    private final int[] epochDays = new int[SIZE];
+    private final int[] hours = new int[SIZE];
+    private final int[] daysOfWeek = new int[SIZE];
+    private EpochCalendar calendar;
+
+    @Setup
+    public void setUp() {
+        Instant origin = Instant.parse("2021-03-28T00:30:00Z");
+        calendar = EpochCalendar.of(zone, origin);
+        SplittableRandom random = new SplittableRandom(42);
+        long week = 7 * 86_400_000L;
+        for (int i = 0; i < SIZE; i++) {
+            epochMillis[i] = "sorted".equals(order)
+                    ? origin.toEpochMilli() - week / 2 + i * (week / SIZE)
+                    : origin.toEpochMilli() + random.nextLong(-52 * week, 52 * week);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] zonedDateTime() {
+        for (int i = 0; i < SIZE; i++) {
+            ZonedDateTime time = Instant.ofEpochMilli(epochMillis[i]).atZone(zone);
+            epochDays[i] = (int) time.toLocalDate().toEpochDay();
+            hours[i] = time.getHour();
+            daysOfWeek[i] = time.getDayOfWeek().getValue();
+        }
+        return daysOfWeek;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] convert() {
+        calendar.convert(epochMillis, epochDays, hours, daysOfWeek);
+        return daysOfWeek;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] convertParallel() {
+        calendar.convertParallel(epochMillis, epochDays, hours, daysOfWeek);
+        return daysOfWeek;
+    }
+}
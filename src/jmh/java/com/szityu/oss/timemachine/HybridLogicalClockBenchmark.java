@@ -0,0 +1,61 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of stamping events by {@link HybridLogicalClock}, compared to a clock guarded by a lock.
+ * The nested classes run the very same benchmarks with 1, 4 and 16 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class HybridLogicalClockBenchmark {
+
+    private final HybridLogicalClock clock = new HybridLogicalClock();
+    private long lockedLatest;
+
+    @Benchmark
+    public long now() {
+        return clock.now();
+    }
+
+    @Benchmark
+    public long update() {
+        return clock.update(clock.latest());
+    }
+
+    @Benchmark
+    public synchronized long baseline_synchronizedNow() {
+        long physical = TimeMachine.epochMilliOfNow() << HybridLogicalClock.LOGICAL_BITS;
+        lockedLatest = Math.max(physical, lockedLatest + 1);
+        return lockedLatest;
+    }
+
+    @Threads(1)
+    public static class SingleThread extends HybridLogicalClockBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends HybridLogicalClockBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends HybridLogicalClockBenchmark {
+    }
+}
@@ -0,0 +1,77 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the overhead of recording the reads of the time by {@link TimeMachine#useRecordingClock(Path)}, compared to
+ * the system clock ({@code system}) and to the system clock after traveling back to it ({@code reset}), which reads the
+ * same clock through the same traveler as the recording.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordingClockBenchmark {
+
+    @Param({"system", "reset", "recording"})
+    public String mode;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("time-machine-recording");
+        if ("reset".equals(mode)) {
+            TimeMachine.travelAt(Instant.parse("2021-03-28T00:30:00Z"));
+            TimeMachine.reset();
+        } else if ("recording".equals(mode)) {
+            TimeMachine.useRecordingClock(directory.resolve("time.rec"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TimeMachine.useSystemClock();
+        try (Stream<Path> segments = Files.list(directory)) {
+            Iterator<Path> iterator = segments.iterator();
+            while (iterator.hasNext()) {
+                Files.delete(iterator.next());
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long epochMilliOfNow() {
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Benchmark
+    public long epochNanoOfNow() {
+        return TimeMachine.epochNanoOfNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of following a shared clock file by {@link TimeMachine#useSharedClock(Path)}, compared to the
+ * same travel of the local process, both for frozen ({@code frozen}) and ticking ({@code ticking}) time.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SharedClockBenchmark {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @Param({"local", "shared"})
+    public String mode;
+
+    @Param({"frozen", "ticking"})
+    public String flow;
+
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TimeFlow timeFlow = "ticking".equals(flow) ? TimeFlow.ticking() : TimeFlow.frozen();
+        if ("shared".equals(mode)) {
+            path = Files.createTempFile("time-machine", ".clock");
+            SharedTimeController.open(path).travelAt(GOAL_INSTANT, timeFlow);
+            TimeMachine.useSharedClock(path);
+        } else {
+            TimeMachine.travelAt(GOAL_INSTANT, timeFlow);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TimeMachine.useSystemClock();
+        TimeMachine.reset();
+        if (path != null) {
+            Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public long epochMilliOfNow() {
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Benchmark
+    public Instant instantOfNow() {
+        return TimeMachine.instantOfNow();
+    }
+}
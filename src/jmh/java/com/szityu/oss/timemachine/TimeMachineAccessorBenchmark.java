@@ -0,0 +1,186 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the {@link TimeMachine} accessors compared to calling {@code java.time} directly, both when the
+ * time machine stays at the present ({@code noop}), when it has traveled ({@code traveled}) and when it uses the coarse
+ * ({@code coarse}) or the precise ({@code precise}) clock.
+ * The nested classes run the very same benchmarks with 1, 4 and 16 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class TimeMachineAccessorBenchmark {
+
+    @Param({"noop", "traveled", "coarse", "precise"})
+    public String mode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("traveled".equals(mode)) {
+            TimeMachine.travelAt(ZonedDateTime.of(2021, 3, 28, 1, 30, 0, 0, ZoneId.of("Europe/Budapest")));
+        } else if ("coarse".equals(mode)) {
+            TimeMachine.useCoarseClock(Duration.ofMillis(1));
+        } else if ("precise".equals(mode)) {
+            TimeMachine.usePreciseClock();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TimeMachine.reset();
+        TimeMachine.useSystemClock();
+    }
+
+    @Benchmark
+    public Instant baseline_instantNow() {
+        return Instant.now();
+    }
+
+    @Benchmark
+    public ZonedDateTime baseline_zonedDateTimeNow() {
+        return ZonedDateTime.now();
+    }
+
+    @Benchmark
+    public long baseline_currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long baseline_nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public Instant instantOfNow() {
+        return TimeMachine.instantOfNow();
+    }
+
+    @Benchmark
+    public ZonedDateTime zonedDateTimeOfNow() {
+        return TimeMachine.zonedDateTimeOfNow();
+    }
+
+    @Benchmark
+    public OffsetDateTime offsetDateTimeOfNow() {
+        return TimeMachine.offsetDateTimeOfNow();
+    }
+
+    @Benchmark
+    public OffsetTime offsetTimeOfNow() {
+        return TimeMachine.offsetTimeOfNow();
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTimeOfNow() {
+        return TimeMachine.localDateTimeOfNow();
+    }
+
+    @Benchmark
+    public LocalDate localDateOfNow() {
+        return TimeMachine.localDateOfNow();
+    }
+
+    @Benchmark
+    public LocalTime localTimeOfNow() {
+        return TimeMachine.localTimeOfNow();
+    }
+
+    @Benchmark
+    public long epochMilliOfNow() {
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Benchmark
+    public long epochSecondOfNow() {
+        return TimeMachine.epochSecondOfNow();
+    }
+
+    @Benchmark
+    public long epochNanoOfNow() {
+        return TimeMachine.epochNanoOfNow();
+    }
+
+    @Benchmark
+    public long epochDayOfNow() {
+        return TimeMachine.epochDayOfNow();
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return TimeMachine.nanoTime();
+    }
+
+    @Benchmark
+    public long stopwatchLap(final StopwatchState state) {
+        return state.stopwatch.lap();
+    }
+
+    @Benchmark
+    public void instantAndLocalDateOfNow(Blackhole blackhole) {
+        blackhole.consume(TimeMachine.instantOfNow());
+        blackhole.consume(TimeMachine.localDateOfNow());
+    }
+
+    @Benchmark
+    public void snapshot_instantAndLocalDate(Blackhole blackhole) {
+        TimeSnapshot snapshot = TimeMachine.snapshot();
+        blackhole.consume(snapshot.toInstant());
+        blackhole.consume(snapshot.toLocalDate());
+    }
+
+    @State(Scope.Thread)
+    public static class StopwatchState {
+
+        private Stopwatch stopwatch;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            stopwatch = Stopwatch.start();
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends TimeMachineAccessorBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends TimeMachineAccessorBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends TimeMachineAccessorBenchmark {
+    }
+}
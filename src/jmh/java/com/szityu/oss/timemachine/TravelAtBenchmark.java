@@ -0,0 +1,97 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of every {@code travelAt(...)} overload of {@link TimeMachine}.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TravelAtBenchmark {
+
+    private final ZonedDateTime zonedDateTime = ZonedDateTime.of(2021, 3, 28, 1, 30, 0, 0, ZoneId.of("Europe/Budapest"));
+    private final ZoneId zone = ZoneId.of("America/New_York");
+    private final Instant instant = zonedDateTime.toInstant();
+    private final OffsetDateTime offsetDateTime = zonedDateTime.toOffsetDateTime().withOffsetSameInstant(ZoneOffset.ofHours(3));
+    private final OffsetTime offsetTime = offsetDateTime.toOffsetTime();
+    private final LocalDateTime localDateTime = zonedDateTime.toLocalDateTime();
+    private final LocalDate localDate = localDateTime.toLocalDate();
+    private final LocalTime localTime = localDateTime.toLocalTime();
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Benchmark
+    public ZoneId travelAt_zoneId() {
+        return TimeMachine.travelAt(zone);
+    }
+
+    @Benchmark
+    public Instant travelAt_instant() {
+        return TimeMachine.travelAt(instant);
+    }
+
+    @Benchmark
+    public ZonedDateTime travelAt_zonedDateTime() {
+        return TimeMachine.travelAt(zonedDateTime);
+    }
+
+    @Benchmark
+    public OffsetDateTime travelAt_offsetDateTime() {
+        return TimeMachine.travelAt(offsetDateTime);
+    }
+
+    @Benchmark
+    public OffsetTime travelAt_offsetTime() {
+        return TimeMachine.travelAt(offsetTime);
+    }
+
+    @Benchmark
+    public LocalDateTime travelAt_localDateTime() {
+        return TimeMachine.travelAt(localDateTime);
+    }
+
+    @Benchmark
+    public LocalDate travelAt_localDate() {
+        return TimeMachine.travelAt(localDate);
+    }
+
+    @Benchmark
+    public LocalTime travelAt_localTime() {
+        return TimeMachine.travelAt(localTime);
+    }
+
+    @Benchmark
+    public void reset() {
+        TimeMachine.reset();
+    }
+}
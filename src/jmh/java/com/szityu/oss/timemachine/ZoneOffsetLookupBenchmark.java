@@ -0,0 +1,86 @@
+package com.szityu.oss.timemachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the offset lookup of {@link ZoneOffsetTable} with {@link ZoneRules#getOffset(Instant)}, both for a steadily
+ * advancing instant around a transition ({@code current}) and for random instants within two years ({@code random}).
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneOffsetLookupBenchmark {
+
+    private static final int SAMPLES = 1 << 12;
+
+    @Param({"Europe/Budapest", "America/New_York"})
+    public String zone;
+
+    private ZoneRules rules;
+    private ZoneOffsetTable table;
+    private final long[] randomEpochSeconds = new long[SAMPLES];
+    private long origin;
+    private long current;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ZoneId zoneId = ZoneId.of(zone);
+        origin = Instant.parse("2021-03-14T00:00:00Z").getEpochSecond();
+        rules = zoneId.getRules();
+        table = ZoneOffsetTable.of(zoneId, origin);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            randomEpochSeconds[i] = origin + random.nextLong(-366 * 86_400L, 366 * 86_400L);
+        }
+    }
+
+    /**
+     * Advances second by second from the origin, restarting after about a month.
+     */
+    private long nextCurrent() {
+        return origin + (current++ & ((1 << 21) - 1));
+    }
+
+    @Benchmark
+    public ZoneOffset zoneRules_current() {
+        return rules.getOffset(Instant.ofEpochSecond(nextCurrent()));
+    }
+
+    @Benchmark
+    public ZoneOffset table_current() {
+        return table.offsetAt(nextCurrent());
+    }
+
+    @Benchmark
+    public ZoneOffset zoneRules_random() {
+        return rules.getOffset(Instant.ofEpochSecond(randomEpochSeconds[next++ & (SAMPLES - 1)]));
+    }
+
+    @Benchmark
+    public ZoneOffset table_random() {
+        return table.offsetAt(randomEpochSeconds[next++ & (SAMPLES - 1)]);
+    }
+}
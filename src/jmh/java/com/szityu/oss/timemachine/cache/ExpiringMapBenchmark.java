@@ -0,0 +1,107 @@
+package com.szityu.oss.timemachine.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and writing a size bounded {@link ExpiringMap}, whose keys are twice as many as its maximum size, so
+ * every other write evicts, compared to a {@link ConcurrentHashMap} without expiry and eviction.
+ * The nested classes run the very same benchmarks with 1, 4 and 16 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class ExpiringMapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int maximumSize;
+
+    private ExpiringMap<Integer, Integer> expiringMap;
+    private ConcurrentHashMap<Integer, Integer> concurrentHashMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expiringMap = new ExpiringMap<>(Duration.ofMinutes(10), ExpiringMap.Expiry.AFTER_ACCESS, maximumSize);
+        concurrentHashMap = new ConcurrentHashMap<>();
+        for (int key = 0; key < maximumSize; key++) {
+            expiringMap.put(key, key);
+            concurrentHashMap.put(key, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        expiringMap.close();
+    }
+
+    @Benchmark
+    public Integer get(final Keys keys) {
+        return expiringMap.get(keys.next(maximumSize));
+    }
+
+    @Benchmark
+    public Integer put(final Keys keys) {
+        int key = keys.next(2 * maximumSize);
+        return expiringMap.put(key, key);
+    }
+
+    @Benchmark
+    public Integer baseline_concurrentHashMapGet(final Keys keys) {
+        return concurrentHashMap.get(keys.next(maximumSize));
+    }
+
+    @Benchmark
+    public Integer baseline_concurrentHashMapPut(final Keys keys) {
+        int key = keys.next(2 * maximumSize);
+        return concurrentHashMap.put(key, key);
+    }
+
+    /**
+     * Pseudo-random keys of the thread.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private long seed = System.nanoTime() | 1;
+
+        int next(final int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (int) ((seed >>> 33) % bound);
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends ExpiringMapBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends ExpiringMapBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends ExpiringMapBenchmark {
+    }
+}
@@ -0,0 +1,107 @@
+package com.szityu.oss.timemachine.concurrent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scheduling and cancelling a timeout in {@link HierarchicalTimingWheel} with
+ * {@link ScheduledThreadPoolExecutor}, while a million other timeouts are pending, as with request deadlines, which are
+ * mostly cancelled by the response.
+ * The nested classes run the very same benchmarks with 1, 4 and 16 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public abstract class TimingWheelBenchmark {
+
+    private static final long MIN_DELAY_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final Runnable NOOP = () -> {
+    };
+
+    @Param({"1000000"})
+    public int pendingTimeouts;
+
+    private ScheduledThreadPoolExecutor executor;
+    private HierarchicalTimingWheel wheel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 512, 4).start();
+        Delays delays = new Delays();
+        for (int i = 0; i < pendingTimeouts; i++) {
+            long delay = delays.next();
+            executor.schedule(NOOP, delay, TimeUnit.NANOSECONDS);
+            wheel.schedule(NOOP, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        wheel.close();
+    }
+
+    @Benchmark
+    public boolean scheduledThreadPoolExecutor(final Delays delays) {
+        ScheduledFuture<?> future = executor.schedule(NOOP, delays.next(), TimeUnit.NANOSECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean timingWheel(final Delays delays) {
+        HierarchicalTimingWheel.Timeout timeout = wheel.schedule(NOOP, delays.next(), TimeUnit.NANOSECONDS);
+        return timeout.cancel();
+    }
+
+    /**
+     * Pseudo-random delays between 10 and about 70 minutes, so nothing expires during the benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Delays {
+
+        private long seed = System.nanoTime() | 1;
+
+        long next() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return MIN_DELAY_NANOS + (seed >>> 28);
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends TimingWheelBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends TimingWheelBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends TimingWheelBenchmark {
+    }
+}
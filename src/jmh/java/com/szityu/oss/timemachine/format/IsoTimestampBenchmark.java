@@ -0,0 +1,82 @@
+package com.szityu.oss.timemachine.format;
+
+import com.szityu.oss.timemachine.TimeFlow;
+import com.szityu.oss.timemachine.TimeMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IsoTimestampFormatter} and {@link IsoTimestampParser} with
+ * {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} formatting the time of now of {@link TimeMachine}, and parsing it back.
+ * Time is ticking after traveling, so the formatter rebuilds its template every minute as usual.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IsoTimestampBenchmark {
+
+    @Param({"noop", "traveled"})
+    public String mode;
+
+    private final IsoTimestampFormatter formatter = new IsoTimestampFormatter(3);
+    private final byte[] destination = new byte[formatter.maxLength()];
+    private String timestamp;
+    private byte[] timestampBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("traveled".equals(mode)) {
+            TimeMachine.travelAt(ZonedDateTime.parse("2021-03-28T02:30:00+02:00[Europe/Budapest]"), TimeFlow.ticking());
+        }
+        timestamp = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(TimeMachine.offsetDateTimeOfNow());
+        timestampBytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Benchmark
+    public int formatter_formatNow() {
+        return formatter.formatNow(destination, 0);
+    }
+
+    @Benchmark
+    public String dateTimeFormatter_format() {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(TimeMachine.offsetDateTimeOfNow());
+    }
+
+    @Benchmark
+    public long parser_parseEpochNanos() {
+        return IsoTimestampParser.parseEpochNanos(timestampBytes, 0, timestampBytes.length);
+    }
+
+    @Benchmark
+    public long offsetDateTime_parse() {
+        OffsetDateTime parsed = OffsetDateTime.parse(timestamp);
+        return parsed.toEpochSecond() * 1_000_000_000L + parsed.getNano();
+    }
+}
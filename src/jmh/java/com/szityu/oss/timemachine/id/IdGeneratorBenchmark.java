@@ -0,0 +1,79 @@
+package com.szityu.oss.timemachine.id;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the ID generators sharing a single instance, compared to a Snowflake generator guarded by
+ * a lock and to random UUIDs. The nested classes run the very same benchmarks with 1, 4, 16 and 64 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class IdGeneratorBenchmark {
+
+    private final SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(1);
+    private final UuidV7Generator uuidV7 = new UuidV7Generator();
+    private final UlidGenerator ulid = new UlidGenerator();
+    private long lockedLatest;
+
+    @Benchmark
+    public long snowflake() {
+        return snowflake.next();
+    }
+
+    @Benchmark
+    public UUID uuidV7() {
+        return uuidV7.next();
+    }
+
+    @Benchmark
+    public String ulid() {
+        return ulid.next();
+    }
+
+    @Benchmark
+    public synchronized long baseline_synchronizedSnowflake() {
+        long physical = (TimeMachine.epochMilliOfNow() - SnowflakeIdGenerator.DEFAULT_EPOCH.toEpochMilli()) << 22;
+        lockedLatest = Math.max(physical, lockedLatest + 1);
+        return lockedLatest | 1 << 12;
+    }
+
+    @Benchmark
+    public UUID baseline_randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Threads(1)
+    public static class SingleThread extends IdGeneratorBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends IdGeneratorBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends IdGeneratorBenchmark {
+    }
+
+    @Threads(64)
+    public static class SixtyFourThreads extends IdGeneratorBenchmark {
+    }
+}
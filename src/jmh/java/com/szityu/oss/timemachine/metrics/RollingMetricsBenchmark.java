@@ -0,0 +1,80 @@
+package com.szityu.oss.timemachine.metrics;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures recording into {@link RollingCounter} and {@link RollingHistogram}, compared to a plain {@link LongAdder}
+ * without windows, and to a rolling counter guarded by a lock.
+ * The nested classes run the very same benchmarks with 1, 4, 16 and 64 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class RollingMetricsBenchmark {
+
+    private final RollingCounter counter = new RollingCounter(Duration.ofMinutes(1), 60);
+    private final RollingHistogram histogram = new RollingHistogram(Duration.ofMinutes(1), 60);
+    private final LongAdder adder = new LongAdder();
+    private final long[] lockedBuckets = new long[60];
+    private long lockedBucket;
+
+    @Benchmark
+    public void counter() {
+        counter.record();
+    }
+
+    @Benchmark
+    public void histogram() {
+        histogram.record(12_345);
+    }
+
+    @Benchmark
+    public void baseline_longAdder() {
+        adder.increment();
+    }
+
+    @Benchmark
+    public synchronized void baseline_lockedCounter() {
+        long bucket = TimeMachine.epochSecondOfNow();
+        if (bucket != lockedBucket) {
+            lockedBuckets[(int) Math.floorMod(bucket, 60L)] = 0;
+            lockedBucket = bucket;
+        }
+        lockedBuckets[(int) Math.floorMod(bucket, 60L)]++;
+    }
+
+    @Threads(1)
+    public static class SingleThread extends RollingMetricsBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends RollingMetricsBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends RollingMetricsBenchmark {
+    }
+
+    @Threads(64)
+    public static class SixtyFourThreads extends RollingMetricsBenchmark {
+    }
+}
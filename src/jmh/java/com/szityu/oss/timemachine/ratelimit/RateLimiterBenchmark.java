@@ -0,0 +1,121 @@
+package com.szityu.oss.timemachine.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures acquiring permits from the rate limiters for a single hot key and for random ones of a million keys,
+ * compared to a token bucket guarded by a lock and refilled by {@link System#nanoTime()}. The limits are high enough
+ * to acquire mostly successfully, which is the costlier path.
+ * The nested classes run the very same benchmarks with 1, 4 and 16 contending threads.
+ *
+ * @author Szilard L. Fodor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class RateLimiterBenchmark {
+
+    private static final int KEYS = 1_000_000;
+
+    private final TokenBucketRateLimiter tokenBucket =
+            new TokenBucketRateLimiter(KEYS, 1_000_000_000L, 1_000_000_000L, Duration.ofSeconds(1));
+    private final SlidingWindowRateLimiter slidingWindow =
+            new SlidingWindowRateLimiter(KEYS, SlidingWindowRateLimiter.MAX_LIMIT, Duration.ofMillis(1));
+    private final LockedTokenBucket lockedTokenBucket = new LockedTokenBucket(1_000_000_000L, 1e9);
+
+    @Benchmark
+    public boolean tokenBucket_hotKey() {
+        return tokenBucket.tryAcquire(0);
+    }
+
+    @Benchmark
+    public boolean tokenBucket_randomKey(final Keys keys) {
+        return tokenBucket.tryAcquire(keys.next());
+    }
+
+    @Benchmark
+    public boolean slidingWindow_hotKey() {
+        return slidingWindow.tryAcquire(0);
+    }
+
+    @Benchmark
+    public boolean slidingWindow_randomKey(final Keys keys) {
+        return slidingWindow.tryAcquire(keys.next());
+    }
+
+    @Benchmark
+    public boolean baseline_lockedTokenBucket() {
+        return lockedTokenBucket.tryAcquire();
+    }
+
+    /**
+     * Pseudo-random keys of the thread.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private long seed = System.nanoTime() | 1;
+
+        int next() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (int) ((seed >>> 33) % KEYS);
+        }
+    }
+
+    /**
+     * The usual token bucket with a fractional number of tokens, refilled at every call.
+     */
+    private static final class LockedTokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private LockedTokenBucket(double capacity, double tokensPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / 1e9;
+            this.tokens = capacity;
+        }
+
+        private synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    @Threads(1)
+    public static class SingleThread extends RateLimiterBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends RateLimiterBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends RateLimiterBenchmark {
+    }
+}
@@ -0,0 +1,96 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock which does not query the system clock on every call, but returns the instant what a background daemon thread
+ * publishes at the given resolution. It's useful when the time is queried very frequently and sub-resolution precision
+ * is not needed, e.g., in logging. All the clocks derived by {@link #withZone(ZoneId)} share the same ticker thread.
+ * This implementation is immutable.
+ *
+ * @author Szilard L. Fodor
+ */
+final class CoarseClock extends Clock implements RealWorldClock {
+
+    private final Ticker ticker;
+    private final ZoneId zone;
+
+    private CoarseClock(Ticker ticker, ZoneId zone) {
+        this.ticker = ticker;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates a new clock and starts its ticker thread.
+     *
+     * @param resolution The period of refreshing the time
+     * @param zone       The time zone(offset and region) of the clock
+     * @return A new, ticking {@link CoarseClock} instance
+     */
+    static CoarseClock start(final Duration resolution, final ZoneId zone) {
+        if (resolution.isNegative() || resolution.isZero()) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        Ticker ticker = new Ticker(resolution.toNanos());
+        Thread thread = new Thread(ticker, "time-machine-coarse-clock");
+        thread.setDaemon(true);
+        thread.start();
+        return new CoarseClock(ticker, zone);
+    }
+
+    /**
+     * Stops the ticker thread. The clock (and all of the clocks derived from it) will return the last published instant.
+     */
+    @Override
+    public void stop() {
+        ticker.running = false;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public CoarseClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new CoarseClock(ticker, zone);
+    }
+
+    @Override
+    public long millis() {
+        return ticker.now.toEpochMilli();
+    }
+
+    @Override
+    public Instant instant() {
+        return ticker.now;
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock[" + zone + "]";
+    }
+
+    private static final class Ticker implements Runnable {
+
+        private final long resolutionNanos;
+        private volatile Instant now = Instant.now();
+        private volatile boolean running = true;
+
+        private Ticker(long resolutionNanos) {
+            this.resolutionNanos = resolutionNanos;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                LockSupport.parkNanos(this, resolutionNanos);
+                now = Instant.now();
+            }
+        }
+    }
+}
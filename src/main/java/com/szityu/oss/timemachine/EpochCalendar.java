@@ -0,0 +1,269 @@
+package com.szityu.oss.timemachine;
+
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Converts batches of epoch millis to calendar fields in a zone, e.g., to bucket the timestamps of a column by day,
+ * hour or day of week, without creating an object per timestamp.</p>
+ * <p>The offsets are looked up in a {@link ZoneOffsetTable}, and the interval between the transitions of the latest
+ * lookup is kept in locals, so a batch of close timestamps, e.g., of the same day, mostly needs a comparison and a
+ * few divisions per timestamp. Large batches can be converted in parallel in a {@link ForkJoinPool}.</p>
+ * <p>Every output is optional: the fields of a {@code null} array are not computed.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class EpochCalendar {
+
+    /**
+     * The number of timestamps, below which a parallel conversion does not split the batch any more
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final ZoneId zone;
+    private final ZoneOffsetTable table;
+
+    private EpochCalendar(ZoneId zone, ZoneOffsetTable table) {
+        this.zone = zone;
+        this.table = table;
+    }
+
+    /**
+     * Returns a calendar of the zone of now of {@link TimeMachine}, which is optimised for the timestamps around the
+     * time of now
+     *
+     * @return A calendar of the traveled zone
+     */
+    public static EpochCalendar ofNow() {
+        return of(TimeMachine.zoneOfNow(), TimeMachine.epochSecondOfNow());
+    }
+
+    /**
+     * Returns a calendar of a zone, which is optimised for the timestamps within a few years around an instant
+     *
+     * @param zone    The zone of the calendar
+     * @param instant The instant around which most of the timestamps are
+     * @return A calendar of the zone
+     */
+    public static EpochCalendar of(final ZoneId zone, final Instant instant) {
+        return of(zone, instant.getEpochSecond());
+    }
+
+    private static EpochCalendar of(final ZoneId zone, final long epochSecond) {
+        return new EpochCalendar(zone, ZoneOffsetTable.of(zone, epochSecond));
+    }
+
+    /**
+     * Returns the zone of the calendar
+     *
+     * @return The zone of the calendar
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Converts all the timestamps of an array
+     *
+     * @param epochMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param epochDays   The local dates as days from the epoch of 1970-01-01, or {@code null}
+     * @param hours       The hours of the day from 0 to 23, or {@code null}
+     * @param daysOfWeek  The ISO days of the week from 1 (Monday) to 7 (Sunday), or {@code null}
+     */
+    public void convert(final long[] epochMillis, final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+        convert(epochMillis, 0, epochMillis.length, epochDays, hours, daysOfWeek);
+    }
+
+    /**
+     * Converts a range of the timestamps of an array into the same range of the outputs
+     *
+     * @param epochMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param from        The index of the first timestamp, inclusive
+     * @param to          The index of the last timestamp, exclusive
+     * @param epochDays   The local dates as days from the epoch of 1970-01-01, or {@code null}
+     * @param hours       The hours of the day from 0 to 23, or {@code null}
+     * @param daysOfWeek  The ISO days of the week from 1 (Monday) to 7 (Sunday), or {@code null}
+     */
+    public void convert(final long[] epochMillis, final int from, final int to,
+                        final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+        checkRange(epochMillis.length, from, to, epochDays, hours, daysOfWeek);
+        new Converter().convert(epochMillis, from, to, epochDays, hours, daysOfWeek);
+    }
+
+    /**
+     * Converts the remaining timestamps of a buffer into the outputs from their index 0, and moves the position of the
+     * buffer to its limit
+     *
+     * @param epochMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param epochDays   The local dates as days from the epoch of 1970-01-01, or {@code null}
+     * @param hours       The hours of the day from 0 to 23, or {@code null}
+     * @param daysOfWeek  The ISO days of the week from 1 (Monday) to 7 (Sunday), or {@code null}
+     */
+    public void convert(final LongBuffer epochMillis, final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+        if (epochMillis.hasArray()) {
+            int start = epochMillis.arrayOffset() + epochMillis.position();
+            int length = epochMillis.remaining();
+            checkRange(length, 0, length, epochDays, hours, daysOfWeek);
+            Converter converter = new Converter();
+            for (int i = 0; i < length; i++) {
+                converter.convert(epochMillis.array()[start + i], i, epochDays, hours, daysOfWeek);
+            }
+            epochMillis.position(epochMillis.limit());
+            return;
+        }
+        int length = epochMillis.remaining();
+        checkRange(length, 0, length, epochDays, hours, daysOfWeek);
+        Converter converter = new Converter();
+        for (int i = 0; i < length; i++) {
+            converter.convert(epochMillis.get(), i, epochDays, hours, daysOfWeek);
+        }
+    }
+
+    /**
+     * Converts all the timestamps of an array in parallel in the common {@link ForkJoinPool}
+     *
+     * @param epochMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param epochDays   The local dates as days from the epoch of 1970-01-01, or {@code null}
+     * @param hours       The hours of the day from 0 to 23, or {@code null}
+     * @param daysOfWeek  The ISO days of the week from 1 (Monday) to 7 (Sunday), or {@code null}
+     */
+    public void convertParallel(final long[] epochMillis, final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+        convertParallel(epochMillis, epochDays, hours, daysOfWeek, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Converts all the timestamps of an array in parallel in a {@link ForkJoinPool}
+     *
+     * @param epochMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param epochDays   The local dates as days from the epoch of 1970-01-01, or {@code null}
+     * @param hours       The hours of the day from 0 to 23, or {@code null}
+     * @param daysOfWeek  The ISO days of the week from 1 (Monday) to 7 (Sunday), or {@code null}
+     * @param pool        The pool to convert in
+     */
+    public void convertParallel(final long[] epochMillis, final int[] epochDays, final int[] hours, final int[] daysOfWeek,
+                                final ForkJoinPool pool) {
+        checkRange(epochMillis.length, 0, epochMillis.length, epochDays, hours, daysOfWeek);
+        if (epochMillis.length <= PARALLEL_THRESHOLD) {
+            new Converter().convert(epochMillis, 0, epochMillis.length, epochDays, hours, daysOfWeek);
+            return;
+        }
+        pool.invoke(new ConversionTask(this, epochMillis, 0, epochMillis.length, epochDays, hours, daysOfWeek));
+    }
+
+    private static void checkRange(final int length, final int from, final int to,
+                                   final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is out of [0, " + length + ")");
+        }
+        checkOutput(epochDays, to);
+        checkOutput(hours, to);
+        checkOutput(daysOfWeek, to);
+    }
+
+    private static void checkOutput(final int[] output, final int to) {
+        if (output != null && output.length < to) {
+            throw new IndexOutOfBoundsException("Output of length " + output.length + " is shorter than " + to);
+        }
+    }
+
+    /**
+     * Converts timestamps on a single thread, keeping the interval of the latest offset lookup.
+     */
+    private final class Converter {
+
+        /**
+         * The interval of epoch seconds, which has the offset. It's empty initially.
+         */
+        private long intervalStart;
+        private long intervalEnd;
+        private int offsetSeconds;
+
+        void convert(final long[] epochMillis, final int from, final int to,
+                     final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+            for (int i = from; i < to; i++) {
+                convert(epochMillis[i], i, epochDays, hours, daysOfWeek);
+            }
+        }
+
+        void convert(final long epochMilli, final int index, final int[] epochDays, final int[] hours, final int[] daysOfWeek) {
+            long epochSecond = Math.floorDiv(epochMilli, 1000L);
+            if (epochSecond < intervalStart || epochSecond >= intervalEnd) {
+                lookUp(epochSecond);
+            }
+            long localSecond = epochSecond + offsetSeconds;
+            long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+            if (epochDays != null) {
+                epochDays[index] = Math.toIntExact(epochDay);
+            }
+            if (hours != null) {
+                hours[index] = (int) (localSecond - epochDay * SECONDS_PER_DAY) / 3600;
+            }
+            if (daysOfWeek != null) {
+                // The epoch day 0 was a Thursday
+                daysOfWeek[index] = (int) Math.floorMod(epochDay + 3, 7L) + 1;
+            }
+        }
+
+        private void lookUp(final long epochSecond) {
+            if (table.covers(epochSecond)) {
+                int index = table.indexOf(epochSecond);
+                intervalStart = table.intervalStart(index);
+                intervalEnd = table.intervalEnd(index);
+                offsetSeconds = table.offset(index).getTotalSeconds();
+                return;
+            }
+            // Out of the window of the table, which is rare, so the rules are walked
+            ZoneRules rules = zone.getRules();
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+            ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            intervalStart = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+            intervalEnd = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+        }
+    }
+
+    /**
+     * Splits a range in halves until it's small enough to be converted by a single {@link Converter}. It's never
+     * serialized, like any task, which is only forked within a pool.
+     */
+    @SuppressWarnings("serial")
+    private static final class ConversionTask extends RecursiveAction {
+
+        private final EpochCalendar calendar;
+        private final long[] epochMillis;
+        private final int from;
+        private final int to;
+        private final int[] epochDays;
+        private final int[] hours;
+        private final int[] daysOfWeek;
+
+        ConversionTask(EpochCalendar calendar, long[] epochMillis, int from, int to, int[] epochDays, int[] hours, int[] daysOfWeek) {
+            this.calendar = calendar;
+            this.epochMillis = epochMillis;
+            this.from = from;
+            this.to = to;
+            this.epochDays = epochDays;
+            this.hours = hours;
+            this.daysOfWeek = daysOfWeek;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                calendar.new Converter().convert(epochMillis, from, to, epochDays, hours, daysOfWeek);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ConversionTask(calendar, epochMillis, from, middle, epochDays, hours, daysOfWeek),
+                    new ConversionTask(calendar, epochMillis, middle, to, epochDays, hours, daysOfWeek));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A hybrid logical clock (HLC), which stamps events with timestamps ordered by causality, even when the physical
+ * clocks of the nodes are skewed. Its physical time is the epoch millis of {@link TimeMachine}, so skew and time jumps
+ * of a cluster can be simulated in a single JVM by traveling, e.g., in a separate timeline per node.</p>
+ * <p>A timestamp packs the physical milliseconds from the epoch into its upper 48 bits, and a logical counter into its
+ * lower 16 bits, so timestamps compare as {@code long}s. Stamping a local event by {@link #now()} or receiving a remote
+ * timestamp by {@link #update(long)} returns a timestamp later than every previous one of the clock (and than the received
+ * one), without locking: it's a single compare-and-set on the latest timestamp. When the counter overflows within a
+ * millisecond, the timestamp moves to the next millisecond.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class HybridLogicalClock {
+
+    /**
+     * The number of the lower bits of a timestamp holding the logical counter
+     */
+    public static final int LOGICAL_BITS = 16;
+    private static final long LOGICAL_MASK = (1L << LOGICAL_BITS) - 1;
+
+    private final AtomicLong latest = new AtomicLong();
+    private final long maxDriftMillis;
+
+    /**
+     * Creates a clock, which accepts remote timestamps of any physical time
+     */
+    public HybridLogicalClock() {
+        this.maxDriftMillis = Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a clock, which rejects remote timestamps ahead of its physical time by more than the given drift, so a
+     * node with a broken clock can't drag the timestamps of the cluster into the future.
+     *
+     * @param maxDrift The maximal drift of remote timestamps ahead of the physical time
+     */
+    public HybridLogicalClock(final Duration maxDrift) {
+        if (maxDrift.isNegative()) {
+            throw new IllegalArgumentException("Max drift must not be negative: " + maxDrift);
+        }
+        this.maxDriftMillis = maxDrift.toMillis();
+    }
+
+    /**
+     * Returns a timestamp for a local or send event, which is later than every previous timestamp of this clock
+     *
+     * @return The timestamp of the event
+     */
+    public long now() {
+        long physical = physicalTimestamp();
+        long previous;
+        long next;
+        do {
+            previous = latest.get();
+            next = Math.max(physical, previous + 1);
+        } while (!latest.compareAndSet(previous, next));
+        return next;
+    }
+
+    /**
+     * Returns a timestamp for receiving a remote timestamp, which is later than both the remote one and every previous
+     * timestamp of this clock
+     *
+     * @param remote The timestamp received from another node
+     * @return The timestamp of the receive event
+     * @throws IllegalArgumentException if the remote timestamp is ahead of the physical time by more than the max drift
+     */
+    public long update(final long remote) {
+        long physical = physicalTimestamp();
+        if (physicalMillis(remote) - physicalMillis(physical) > maxDriftMillis) {
+            throw new IllegalArgumentException("Remote timestamp " + toString(remote) + " is ahead of the physical time "
+                    + toString(physical) + " by more than " + maxDriftMillis + " ms");
+        }
+        long previous;
+        long next;
+        do {
+            previous = latest.get();
+            next = Math.max(physical, Math.max(previous, remote) + 1);
+        } while (!latest.compareAndSet(previous, next));
+        return next;
+    }
+
+    /**
+     * Returns the latest timestamp of this clock without stamping a new event
+     *
+     * @return The latest timestamp, 0 if the clock has not stamped any event yet
+     */
+    public long latest() {
+        return latest.get();
+    }
+
+    private static long physicalTimestamp() {
+        return TimeMachine.epochMilliOfNow() << LOGICAL_BITS;
+    }
+
+    /**
+     * Returns the physical part of a timestamp
+     *
+     * @param timestamp The timestamp
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     */
+    public static long physicalMillis(final long timestamp) {
+        return timestamp >>> LOGICAL_BITS;
+    }
+
+    /**
+     * Returns the logical part of a timestamp
+     *
+     * @param timestamp The timestamp
+     * @return The logical counter within the physical millisecond
+     */
+    public static int logical(final long timestamp) {
+        return (int) (timestamp & LOGICAL_MASK);
+    }
+
+    /**
+     * Returns the physical part of a timestamp as an instant
+     *
+     * @param timestamp The timestamp
+     * @return The instant of the physical part
+     */
+    public static Instant toInstant(final long timestamp) {
+        return Instant.ofEpochMilli(physicalMillis(timestamp));
+    }
+
+    /**
+     * Creates a timestamp from its parts
+     *
+     * @param physicalMillis The milliseconds from the epoch of 1970-01-01T00:00:00Z, which must fit into 48 bits
+     * @param logical        The logical counter, which must fit into 16 bits
+     * @return The timestamp
+     */
+    public static long timestamp(final long physicalMillis, final int logical) {
+        if (physicalMillis < 0 || physicalMillis >>> (Long.SIZE - LOGICAL_BITS) != 0) {
+            throw new IllegalArgumentException("Physical millis out of range: " + physicalMillis);
+        }
+        if (logical < 0 || logical > LOGICAL_MASK) {
+            throw new IllegalArgumentException("Logical counter out of range: " + logical);
+        }
+        return physicalMillis << LOGICAL_BITS | logical;
+    }
+
+    /**
+     * Returns a human readable form of a timestamp, e.g., {@code 2021-03-28T00:30:00Z#3}
+     *
+     * @param timestamp The timestamp
+     * @return The instant of the physical part and the logical counter
+     */
+    public static String toString(final long timestamp) {
+        return toInstant(timestamp) + "#" + logical(timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "HybridLogicalClock[" + toString(latest.get()) + "]";
+    }
+}
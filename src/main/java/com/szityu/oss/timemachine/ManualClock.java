@@ -0,0 +1,75 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock which stands still until it is advanced. It stores the time as nanoseconds from the epoch, which is advanced
+ * atomically in place, so advancing it does not create any object and it's safe for concurrent advancers.
+ * The clocks derived by {@link #withZone(ZoneId)} share the same time.
+ *
+ * @author Szilard L. Fodor
+ */
+final class ManualClock extends Clock {
+
+    private final AtomicLong epochNanos;
+    private final ZoneId zone;
+
+    ManualClock(long epochNanos, ZoneId zone) {
+        this(new AtomicLong(epochNanos), zone);
+    }
+
+    private ManualClock(AtomicLong epochNanos, ZoneId zone) {
+        this.epochNanos = epochNanos;
+        this.zone = zone;
+    }
+
+    /**
+     * Advances the clock by the given amount of nanoseconds.
+     *
+     * @param nanos The nanoseconds to advance, negative values move the clock backward
+     * @return The new nanoseconds from the epoch
+     * @throws ArithmeticException if the clock would leave the supported range
+     */
+    long advance(final long nanos) {
+        long current;
+        long next;
+        do {
+            current = epochNanos.get();
+            next = Math.addExact(current, nanos);
+        } while (!epochNanos.compareAndSet(current, next));
+        return next;
+    }
+
+    long epochNanos() {
+        return epochNanos.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public ManualClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ManualClock(epochNanos, zone);
+    }
+
+    @Override
+    public long millis() {
+        return Math.floorDiv(epochNanos.get(), 1_000_000L);
+    }
+
+    @Override
+    public Instant instant() {
+        long nanos = epochNanos.get();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, RealTimeTraveler.NANOS_PER_SECOND), Math.floorMod(nanos, RealTimeTraveler.NANOS_PER_SECOND));
+    }
+
+    @Override
+    public String toString() {
+        return "ManualClock[" + instant() + "," + zone + "]";
+    }
+}
@@ -1,25 +1,37 @@
 package com.szityu.oss.timemachine;
 
-import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 /**
  * This implementation won't travel in time. All of it's getters are return dates/times based on the default system settings.
  * If we want to travel in time this implementation will return a {@link RealTimeTraveler} instance.
- * This implementation is immutable.
+ * This implementation is immutable, apart from caching the default time zone of the system.
  *
  * @author Szilard L. Fodor
  */
 class NoopTimeTraveler extends RealTimeTraveler {
 
+    /**
+     * The period of looking up the default time zone of the system again, as {@link ZoneId#systemDefault()} allocates a
+     * clone of it at every call, and {@link java.util.TimeZone#setDefault} can't be listened to.
+     */
+    private static final long ZONE_RECHECK_MILLIS = 1_000L;
+
+    /**
+     * The default zone of the latest lookup. It's immutable, so racing threads can only look it up redundantly.
+     */
+    private volatile DefaultZone defaultZone;
+
     NoopTimeTraveler() {
-        super(Clock.systemDefaultZone());
+        super(new SystemClock(ZoneId.systemDefault()));
+        refreshZone();
     }
 
     public static NoopTimeTraveler getInstance() {
@@ -61,8 +73,81 @@ class NoopTimeTraveler extends RealTimeTraveler {
         return LocalTime.now();
     }
 
+    @Override
+    public ZoneId zoneOfNow() {
+        return defaultZone(System.currentTimeMillis()).zone;
+    }
+
+    @Override
+    public TimeSnapshot snapshot() {
+        Instant now = Instant.now();
+        DefaultZone zone = defaultZone(now.toEpochMilli());
+        return new TimeSnapshot(now, zone.zone, zone.offsetTable.offsetAt(now.getEpochSecond()));
+    }
+
+    @Override
+    public long epochMilliOfNow() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long epochSecondOfNow() {
+        return Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_SECOND);
+    }
+
+    @Override
+    public long epochNanoOfNow() {
+        // The instant does not escape, so the JIT can scalar replace it
+        return toEpochNano(Instant.now());
+    }
+
+    @Override
+    public long epochDayOfNow() {
+        long epochMilli = System.currentTimeMillis();
+        long epochSecond = Math.floorDiv(epochMilli, MILLIS_PER_SECOND);
+        int offsetSeconds = defaultZone(epochMilli).offsetTable.offsetAt(epochSecond).getTotalSeconds();
+        return Math.floorDiv(epochSecond + offsetSeconds, SECONDS_PER_DAY);
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Looks up the default time zone of the system immediately, instead of within a second.
+     */
+    void refreshZone() {
+        defaultZone = new DefaultZone(ZoneId.systemDefault(), System.currentTimeMillis());
+    }
+
+    private DefaultZone defaultZone(final long epochMilli) {
+        DefaultZone zone = defaultZone;
+        if (epochMilli - zone.checkedAt >= ZONE_RECHECK_MILLIS || epochMilli < zone.checkedAt) {
+            zone = new DefaultZone(ZoneId.systemDefault(), epochMilli);
+            defaultZone = zone;
+        }
+        return zone;
+    }
+
     // Bill Pugh Singleton
     private static final class InstanceHolder {
         private static final NoopTimeTraveler INSTANCE = new NoopTimeTraveler();
     }
+
+    /**
+     * The default time zone of the system at the time of the lookup, with its offset table around that time.
+     */
+    private static final class DefaultZone {
+
+        private final ZoneId zone;
+        private final ZoneOffsetTable offsetTable;
+        private final long checkedAt;
+
+        private DefaultZone(ZoneId zone, long checkedAt) {
+            this.zone = zone;
+            this.offsetTable = ZoneOffsetTable.of(zone, Math.floorDiv(checkedAt, MILLIS_PER_SECOND));
+            this.checkedAt = checkedAt;
+        }
+    }
 }
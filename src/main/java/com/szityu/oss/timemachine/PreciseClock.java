@@ -0,0 +1,193 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A clock which reads the system clock only at calibrations, and extrapolates the time in between by
+ * {@link System#nanoTime()}, so it has nanosecond resolution even on hosts, where the system clock ticks by
+ * milliseconds. A background daemon thread re-calibrates it periodically, so its drift from the system clock is bounded
+ * by the drift of the nanosecond timer during a period.</p>
+ * <p>Its time never goes backward: a calibration, which is behind the extrapolated time, is caught up by running the
+ * clock at 15/16 speed, instead of stepping back. Only when it's behind by more than {@link #MAX_SLEW_NANOS}, e.g., the
+ * system clock has been set back, the clock is re-anchored to the system clock, which is a step back. Every call returns
+ * a later time than any call, which has happened before it on any thread, so the times order the events even across
+ * threads.</p>
+ * <p>All the clocks derived by {@link #withZone(ZoneId)} share the same time.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class PreciseClock extends Clock implements RealWorldClock {
+
+    /**
+     * The longest time to spin for the system clock to tick at a calibration. Clocks ticking more rarely are calibrated
+     * to their resolution.
+     */
+    private static final long MAX_EDGE_WAIT_NANOS = 20_000L;
+    /**
+     * The longest lag behind the system clock, which is caught up by slewing instead of re-anchoring
+     */
+    private static final long MAX_SLEW_NANOS = 100_000_000L;
+    /**
+     * A slewing clock runs slower by {@code 1 / 2^SLEW_SHIFT}
+     */
+    private static final int SLEW_SHIFT = 4;
+
+    private final Calibrator calibrator;
+    private final ZoneId zone;
+
+    private PreciseClock(Calibrator calibrator, ZoneId zone) {
+        this.calibrator = calibrator;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates a new clock, calibrates it and starts its calibrator thread.
+     *
+     * @param calibrationPeriod The period of re-calibrating the clock
+     * @param zone              The time zone(offset and region) of the clock
+     * @return A new, calibrated {@link PreciseClock} instance
+     */
+    static PreciseClock start(final Duration calibrationPeriod, final ZoneId zone) {
+        if (calibrationPeriod.isNegative() || calibrationPeriod.isZero()) {
+            throw new IllegalArgumentException("Calibration period must be positive: " + calibrationPeriod);
+        }
+        Calibrator calibrator = new Calibrator(calibrationPeriod.toNanos());
+        Thread thread = new Thread(calibrator, "time-machine-precise-clock");
+        thread.setDaemon(true);
+        thread.start();
+        return new PreciseClock(calibrator, zone);
+    }
+
+    /**
+     * Stops the calibrator thread. The clock (and all of the clocks derived from it) keeps extrapolating from the last
+     * calibration.
+     */
+    @Override
+    public void stop() {
+        calibrator.running = false;
+    }
+
+    long epochNanos() {
+        return calibrator.epochNanos();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public PreciseClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new PreciseClock(calibrator, zone);
+    }
+
+    @Override
+    public long millis() {
+        return Math.floorDiv(epochNanos(), 1_000_000L);
+    }
+
+    @Override
+    public Instant instant() {
+        long nanos = epochNanos();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, RealTimeTraveler.NANOS_PER_SECOND), Math.floorMod(nanos, RealTimeTraveler.NANOS_PER_SECOND));
+    }
+
+    @Override
+    public String toString() {
+        return "PreciseClock[" + zone + "]";
+    }
+
+    /**
+     * A reading of the system clock, and the value of the nanosecond timer at the same moment, with the lag to catch up
+     * from there on by slewing.
+     */
+    private static final class Calibration {
+
+        private final long epochNanos;
+        private final long nanoTime;
+        private final long lagNanos;
+
+        private Calibration(long epochNanos, long nanoTime, long lagNanos) {
+            this.epochNanos = epochNanos;
+            this.nanoTime = nanoTime;
+            this.lagNanos = lagNanos;
+        }
+
+        /**
+         * Reads the system clock right after it ticks, so the reading is as close to the real time as its resolution
+         * allows. Clocks of high resolution tick between any two reads, so it does not wait for them.
+         */
+        static Calibration read() {
+            long start = System.nanoTime();
+            long previous = RealTimeTraveler.toEpochNano(Instant.now());
+            while (true) {
+                long nanoTime = System.nanoTime();
+                long epochNanos = RealTimeTraveler.toEpochNano(Instant.now());
+                if (epochNanos != previous || nanoTime - start > MAX_EDGE_WAIT_NANOS) {
+                    return new Calibration(epochNanos, nanoTime, 0);
+                }
+            }
+        }
+
+        /**
+         * Extrapolates the time, which is non-decreasing in the nanosecond timer, even while slewing.
+         */
+        long epochNanosAt(final long nanoTime) {
+            long elapsed = nanoTime - this.nanoTime;
+            return epochNanos + elapsed - Math.min(elapsed >> SLEW_SHIFT, lagNanos);
+        }
+
+        /**
+         * Continues this calibration from a new reading of the system clock: ahead of it is stepped forward, while
+         * behind it is slewed, unless it lags too much.
+         */
+        Calibration recalibrate(final Calibration reading) {
+            long current = epochNanosAt(reading.nanoTime);
+            long lag = current - reading.epochNanos;
+            if (lag <= 0 || lag > MAX_SLEW_NANOS) {
+                return reading;
+            }
+            return new Calibration(current, reading.nanoTime, lag);
+        }
+    }
+
+    private static final class Calibrator implements Runnable {
+
+        private final long periodNanos;
+        /**
+         * The latest returned time of every thread, which makes the clock strictly monotonic across threads
+         */
+        private final AtomicLong latest = new AtomicLong(Long.MIN_VALUE);
+        private volatile Calibration calibration = Calibration.read();
+        private volatile boolean running = true;
+
+        private Calibrator(long periodNanos) {
+            this.periodNanos = periodNanos;
+        }
+
+        long epochNanos() {
+            long extrapolated = calibration.epochNanosAt(System.nanoTime());
+            long previous;
+            long next;
+            do {
+                previous = latest.get();
+                // Far ahead only after re-anchoring, which is followed instead of the previous time
+                next = previous >= extrapolated && previous - extrapolated < MAX_SLEW_NANOS ? previous + 1 : extrapolated;
+            } while (!latest.compareAndSet(previous, next));
+            return next;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                LockSupport.parkNanos(this, periodNanos);
+                calibration = calibration.recalibrate(Calibration.read());
+            }
+        }
+    }
+}
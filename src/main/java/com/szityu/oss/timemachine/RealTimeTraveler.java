@@ -8,22 +8,54 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 
 /**
  * This class implements the {@link TimeTraveler} functionality, which can be used for testing purposes.
- * This implementation is immutable.
+ * This implementation is thread-safe: its clock is fixed, and it only caches the zone offsets and the latest local day
+ * in plain fields, which hold immutable values, so racing threads can only compute them redundantly.
  *
  * @author Szilard L. Fodor
  */
 class RealTimeTraveler implements TimeTraveler {
 
+    static final long MILLIS_PER_SECOND = 1_000L;
+    static final long NANOS_PER_SECOND = 1_000_000_000L;
+    static final long SECONDS_PER_DAY = 86_400L;
+    /**
+     * The epoch nanos, where {@link System#nanoTime()} was 0 at startup, so traveled nano times continue the real ones
+     */
+    static final long NANO_TIME_ORIGIN = toEpochNano(Instant.now()) - System.nanoTime();
+
     private final Clock clock;
 
+    /**
+     * Looked up around the first query instead of reading the clock at construction, as reads of recording and replay
+     * clocks are observable. Tables can be shared, so racing threads can only look it up redundantly.
+     */
+    private ZoneOffsetTable offsetTable;
+
+    /**
+     * The local day of the latest query. It's immutable, so racing threads can only compute it redundantly.
+     */
+    private LocalDay localDay;
+
     protected RealTimeTraveler(Clock clock) {
         this.clock = clock;
     }
 
+    /**
+     * Releases the resources of the underlying clock, if it has any.
+     */
+    void stop() {
+        if (clock instanceof RealWorldClock) {
+            ((RealWorldClock) clock).stop();
+        }
+    }
+
     @Override
     public RealTimeTraveler travelAt(final ZoneId zone) {
         return new RealTimeTraveler(clock.withZone(zone));
@@ -34,11 +66,21 @@ class RealTimeTraveler implements TimeTraveler {
         return new RealTimeTraveler(Clock.fixed(time, clock.getZone()));
     }
 
+    @Override
+    public RealTimeTraveler travelAt(final Instant time, final TimeFlow flow) {
+        return new RealTimeTraveler(flow.clockAt(time, clock.getZone()));
+    }
+
     @Override
     public RealTimeTraveler travelAt(final ZonedDateTime time) {
         return new RealTimeTraveler(Clock.fixed(time.toInstant(), time.getZone()));
     }
 
+    @Override
+    public RealTimeTraveler travelAt(final ZonedDateTime time, final TimeFlow flow) {
+        return new RealTimeTraveler(flow.clockAt(time.toInstant(), time.getZone()));
+    }
+
     @Override
     public RealTimeTraveler travelAt(final OffsetDateTime time) {
         return new RealTimeTraveler(Clock.fixed(time.toInstant(), time.getOffset()));
@@ -64,6 +106,15 @@ class RealTimeTraveler implements TimeTraveler {
         return new RealTimeTraveler(Clock.fixed(time.atDate(localDateOfNow()).atZone(clock.getZone()).toInstant(), clock.getZone()));
     }
 
+    @Override
+    public RealTimeTraveler advance(final long nanos) {
+        if (clock instanceof ManualClock) {
+            ((ManualClock) clock).advance(nanos);
+            return this;
+        }
+        return new RealTimeTraveler(new ManualClock(Math.addExact(epochNanoOfNow(), nanos), zoneOfNow()));
+    }
+
     @Override
     public Instant instantOfNow() {
         return Instant.now(clock);
@@ -76,26 +127,149 @@ class RealTimeTraveler implements TimeTraveler {
 
     @Override
     public OffsetDateTime offsetDateTimeOfNow() {
-        return OffsetDateTime.now(clock);
+        Instant now = clock.instant();
+        LocalDay day = localDayOf(now.getEpochSecond());
+        return OffsetDateTime.of(day.date, day.localTimeOf(now), day.offset);
     }
 
     @Override
     public OffsetTime offsetTimeOfNow() {
-        return OffsetTime.now(clock);
+        Instant now = clock.instant();
+        LocalDay day = localDayOf(now.getEpochSecond());
+        return OffsetTime.of(day.localTimeOf(now), day.offset);
     }
 
     @Override
     public LocalDateTime localDateTimeOfNow() {
-        return LocalDateTime.now(clock);
+        Instant now = clock.instant();
+        LocalDay day = localDayOf(now.getEpochSecond());
+        return LocalDateTime.of(day.date, day.localTimeOf(now));
     }
 
     @Override
     public LocalDate localDateOfNow() {
-        return LocalDate.now(clock);
+        return localDayOf(epochSecondOfNow()).date;
     }
 
     @Override
     public LocalTime localTimeOfNow() {
-        return LocalTime.now(clock);
+        Instant now = clock.instant();
+        return localDayOf(now.getEpochSecond()).localTimeOf(now);
+    }
+
+    @Override
+    public ZoneId zoneOfNow() {
+        return clock.getZone();
+    }
+
+    @Override
+    public TimeSnapshot snapshot() {
+        Instant now = clock.instant();
+        return new TimeSnapshot(now, clock.getZone(), localDayOf(now.getEpochSecond()).offset);
+    }
+
+    @Override
+    public long epochMilliOfNow() {
+        return clock.millis();
+    }
+
+    @Override
+    public long epochSecondOfNow() {
+        return Math.floorDiv(clock.millis(), MILLIS_PER_SECOND);
+    }
+
+    @Override
+    public long epochNanoOfNow() {
+        if (clock instanceof ManualClock) {
+            return ((ManualClock) clock).epochNanos();
+        }
+        return clock instanceof PreciseClock ? ((PreciseClock) clock).epochNanos() : toEpochNano(clock.instant());
+    }
+
+    @Override
+    public long epochDayOfNow() {
+        return localDayOf(epochSecondOfNow()).date.toEpochDay();
+    }
+
+    @Override
+    public long nanoTime() {
+        // Real world clocks follow the system clock, whose monotonic source is the system's
+        return clock instanceof RealWorldClock ? System.nanoTime() : epochNanoOfNow() - NANO_TIME_ORIGIN;
+    }
+
+    private LocalDay localDayOf(final long epochSecond) {
+        LocalDay day = localDay;
+        if (day == null || epochSecond < day.validFrom || epochSecond >= day.validUntil) {
+            ZoneOffsetTable table = offsetTable;
+            if (table == null) {
+                table = ZoneOffsetTable.of(clock.getZone(), epochSecond);
+                offsetTable = table;
+            }
+            day = table.covers(epochSecond) ? LocalDay.of(epochSecond, table) : LocalDay.of(epochSecond, clock.getZone());
+            localDay = day;
+        }
+        return day;
+    }
+
+    static long toEpochNano(final Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    /**
+     * The local date and offset of an interval, which is bounded by the midnights and the offset transitions of a zone.
+     * Within the interval the local date and time can be derived from the epoch second by simple arithmetic.
+     */
+    private static final class LocalDay {
+
+        private final long validFrom;
+        private final long validUntil;
+        private final long localMidnight;
+        private final ZoneOffset offset;
+        private final LocalDate date;
+
+        private LocalDay(long validFrom, long validUntil, long localMidnight, ZoneOffset offset, LocalDate date) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.localMidnight = localMidnight;
+            this.offset = offset;
+            this.date = date;
+        }
+
+        private static LocalDay of(final long epochSecond, final ZoneOffsetTable offsetTable) {
+            int index = offsetTable.indexOf(epochSecond);
+            ZoneOffset offset = offsetTable.offset(index);
+            long epochDay = Math.floorDiv(epochSecond + offset.getTotalSeconds(), SECONDS_PER_DAY);
+            long localMidnight = epochDay * SECONDS_PER_DAY;
+            long validFrom = Math.max(localMidnight - offset.getTotalSeconds(), offsetTable.intervalStart(index));
+            long validUntil = Math.min(localMidnight - offset.getTotalSeconds() + SECONDS_PER_DAY, offsetTable.intervalEnd(index));
+            return new LocalDay(validFrom, validUntil, localMidnight, offset, LocalDate.ofEpochDay(epochDay));
+        }
+
+        private static LocalDay of(final long epochSecond, final ZoneId zone) {
+            ZoneRules rules = zone.getRules();
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            ZoneOffset offset = rules.getOffset(instant);
+            long epochDay = Math.floorDiv(epochSecond + offset.getTotalSeconds(), SECONDS_PER_DAY);
+            long localMidnight = epochDay * SECONDS_PER_DAY;
+            long validFrom = localMidnight - offset.getTotalSeconds();
+            long validUntil = validFrom + SECONDS_PER_DAY;
+            if (!rules.isFixedOffset()) {
+                // The previous transition is exclusive, so look for it from the next second
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+                if (previous != null) {
+                    validFrom = Math.max(validFrom, previous.toEpochSecond());
+                }
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                if (next != null) {
+                    validUntil = Math.min(validUntil, next.toEpochSecond());
+                }
+            }
+            return new LocalDay(validFrom, validUntil, localMidnight, offset, LocalDate.ofEpochDay(epochDay));
+        }
+
+        private LocalTime localTimeOf(final Instant instant) {
+            long secondOfDay = instant.getEpochSecond() + offset.getTotalSeconds() - localMidnight;
+            return LocalTime.ofNanoOfDay(secondOfDay * NANOS_PER_SECOND + instant.getNano());
+        }
     }
 }
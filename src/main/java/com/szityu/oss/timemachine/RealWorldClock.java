@@ -0,0 +1,16 @@
+package com.szityu.oss.timemachine;
+
+/**
+ * A clock of real world time, so the time elapsed on it is measured by {@link System#nanoTime()}. It may obtain the time
+ * in another way than querying the system clock on every call, e.g., by a background thread. Its resources must be
+ * released by {@link #stop()}, when it's not used anymore.
+ *
+ * @author Szilard L. Fodor
+ */
+interface RealWorldClock {
+
+    /**
+     * Releases the resources of the clock, e.g., stops its background thread.
+     */
+    void stop();
+}
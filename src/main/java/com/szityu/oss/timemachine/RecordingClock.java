@@ -0,0 +1,190 @@
+package com.szityu.oss.timemachine;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A clock of the system clock, which records every read into a {@link TimeRecordFile}, so {@link ReplayClock} can
+ * return the same times again, e.g., to reproduce a timing dependent incident.</p>
+ * <p>Every thread records into its own chunk buffer, which is copied into the next free chunk of the memory mapped file
+ * when it's full, so a read neither locks nor allocates. The chunks are claimed by a single atomic increment, and the
+ * segments are mapped on demand. The partial chunks of terminated threads are written, when a new thread starts
+ * recording, so only the buffers of the live threads are retained. The rest of the partial chunks are written by
+ * {@link #stop()}, which must be called after the recording threads have finished, otherwise their latest reads may be
+ * lost. Stopping unmaps the segments, and the buffers held by the threads don't reference the recording, so a stopped
+ * recording is released, even if pool threads, which have recorded into it, keep running.</p>
+ * <p>The reads of a thread are replayed in order, but the reads of different threads are not interleaved as they
+ * happened: the chunks are replayed in the order they were claimed, which is when they were filled, so a chunk of a
+ * thread is replayed as a whole before or after the chunks of the other threads.</p>
+ * <p>All the clocks derived by {@link #withZone(ZoneId)} share the same recording.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class RecordingClock extends Clock implements RealWorldClock {
+
+    private final Recording recording;
+    private final ZoneId zone;
+
+    private RecordingClock(Recording recording, ZoneId zone) {
+        this.recording = recording;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates a new clock, which records into the segments of the given path, overwriting the existing ones.
+     *
+     * @param path The path of the recording
+     * @param zone The time zone(offset and region) of the clock
+     * @return A new, recording {@link RecordingClock} instance
+     */
+    static RecordingClock start(final Path path, final ZoneId zone) {
+        return new RecordingClock(new Recording(path), zone);
+    }
+
+    /**
+     * Writes the partial chunks of every thread, and stops recording. The clock (and all of the clocks derived from it)
+     * keeps returning the time of the system clock.
+     */
+    @Override
+    public void stop() {
+        recording.stop();
+    }
+
+    long epochNanos() {
+        long now = RealTimeTraveler.toEpochNano(Instant.now());
+        recording.record(now);
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public RecordingClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new RecordingClock(recording, zone);
+    }
+
+    @Override
+    public long millis() {
+        return Math.floorDiv(epochNanos(), 1_000_000L);
+    }
+
+    @Override
+    public Instant instant() {
+        long epochNanos = epochNanos();
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, RealTimeTraveler.NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, RealTimeTraveler.NANOS_PER_SECOND));
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingClock[" + zone + "]";
+    }
+
+    private static final class Recording {
+
+        private final Path path;
+        private final AtomicLong nextChunk = new AtomicLong();
+        private final ConcurrentMap<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+        private final Queue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(this::newRecorder);
+        private volatile boolean running = true;
+
+        private Recording(Path path) {
+            TimeRecordFile.deleteSegments(path);
+            this.path = path;
+        }
+
+        private Recorder newRecorder() {
+            for (Recorder existing : recorders) {
+                // A terminated thread records no more, and the removal claims its flush against stop()
+                if (!existing.owner.isAlive() && recorders.remove(existing)) {
+                    existing.flush(this);
+                }
+            }
+            Recorder created = new Recorder(Thread.currentThread());
+            recorders.add(created);
+            return created;
+        }
+
+        private void record(final long epochNanos) {
+            if (running) {
+                recorder.get().record(this, epochNanos);
+            }
+        }
+
+        private void write(final byte[] chunk) {
+            long index = nextChunk.getAndIncrement();
+            int segmentIndex = Math.toIntExact(index / TimeRecordFile.CHUNKS_PER_SEGMENT);
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            if (segment == null) {
+                segment = segments.computeIfAbsent(segmentIndex, i -> TimeRecordFile.mapForWriting(path, i));
+            }
+            ByteBuffer target = segment.duplicate();
+            target.position((int) (index % TimeRecordFile.CHUNKS_PER_SEGMENT) * TimeRecordFile.CHUNK_SIZE);
+            target.put(chunk);
+        }
+
+        private void stop() {
+            running = false;
+            Recorder partial;
+            while ((partial = recorders.poll()) != null) {
+                partial.flush(this);
+            }
+            for (MappedByteBuffer segment : segments.values()) {
+                segment.force();
+            }
+            // Unmapped by the garbage collector, even while the recording is still referenced
+            segments.clear();
+        }
+    }
+
+    /**
+     * The chunk buffer of a thread. It does not reference its recording, which would keep the thread local of the
+     * recording, and so the recording itself, reachable from the thread for its lifetime.
+     */
+    private static final class Recorder {
+
+        private final Thread owner;
+        private final byte[] chunk = new byte[TimeRecordFile.CHUNK_SIZE];
+        private int position = TimeRecordFile.HEADER_SIZE;
+        private long previous;
+
+        private Recorder(Thread owner) {
+            this.owner = owner;
+        }
+
+        private void record(final Recording recording, final long epochNanos) {
+            if (position > TimeRecordFile.CHUNK_SIZE - TimeRecordFile.MAX_VARINT_SIZE) {
+                flush(recording);
+            }
+            position = TimeRecordFile.writeVarint(chunk, position, epochNanos - previous);
+            previous = epochNanos;
+        }
+
+        private void flush(final Recording recording) {
+            int length = position - TimeRecordFile.HEADER_SIZE;
+            if (length == 0) {
+                return;
+            }
+            chunk[0] = (byte) (length >>> 24);
+            chunk[1] = (byte) (length >>> 16);
+            chunk[2] = (byte) (length >>> 8);
+            chunk[3] = (byte) length;
+            recording.write(chunk);
+            position = TimeRecordFile.HEADER_SIZE;
+            previous = 0;
+        }
+    }
+}
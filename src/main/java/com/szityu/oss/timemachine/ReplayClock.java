@@ -0,0 +1,144 @@
+package com.szityu.oss.timemachine;
+
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A clock, which returns the times recorded by a {@link RecordingClock} one by one in the order of the
+ * {@link TimeRecordFile}, regardless of the thread reading it. After the last recorded time it keeps returning that.</p>
+ * <p>All the clocks derived by {@link #withZone(ZoneId)} share the same replay.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class ReplayClock extends Clock implements RealWorldClock {
+
+    private final Replay replay;
+    private final ZoneId zone;
+
+    private ReplayClock(Replay replay, ZoneId zone) {
+        this.replay = replay;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates a new clock, which replays the segments of the given path.
+     *
+     * @param path The path of the recording
+     * @param zone The time zone(offset and region) of the clock
+     * @return A new {@link ReplayClock} instance at the first recorded time
+     * @throws IllegalArgumentException if there is no recorded time at the path
+     */
+    static ReplayClock start(final Path path, final ZoneId zone) {
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        for (int index = 0; Files.exists(TimeRecordFile.segmentPath(path, index)); index++) {
+            segments.add(TimeRecordFile.mapForReading(path, index));
+        }
+        if (segments.isEmpty() || segments.get(0).capacity() < TimeRecordFile.CHUNK_SIZE || segments.get(0).getInt(0) == 0) {
+            throw new IllegalArgumentException("No time is recorded at " + path);
+        }
+        return new ReplayClock(new Replay(segments), zone);
+    }
+
+    /**
+     * The mapped segments are released, when the clock is garbage collected.
+     */
+    @Override
+    public void stop() {
+    }
+
+    long epochNanos() {
+        return replay.next();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public ReplayClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ReplayClock(replay, zone);
+    }
+
+    @Override
+    public long millis() {
+        return Math.floorDiv(epochNanos(), 1_000_000L);
+    }
+
+    @Override
+    public Instant instant() {
+        long epochNanos = epochNanos();
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, RealTimeTraveler.NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, RealTimeTraveler.NANOS_PER_SECOND));
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayClock[" + zone + "]";
+    }
+
+    /**
+     * The position of the replay, which is decoded under its lock, as the varints can't be claimed atomically.
+     */
+    private static final class Replay {
+
+        private final List<MappedByteBuffer> segments;
+        private int segment;
+        private int chunk = -1;
+        private int position;
+        private int chunkEnd;
+        private long previous;
+        private long last;
+        private boolean exhausted;
+
+        private Replay(List<MappedByteBuffer> segments) {
+            this.segments = segments;
+        }
+
+        private synchronized long next() {
+            while (position == chunkEnd) {
+                if (exhausted || !nextChunk()) {
+                    exhausted = true;
+                    return last;
+                }
+            }
+            MappedByteBuffer buffer = segments.get(segment);
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            last = previous;
+            return last;
+        }
+
+        private boolean nextChunk() {
+            if (++chunk == TimeRecordFile.CHUNKS_PER_SEGMENT) {
+                segment++;
+                chunk = 0;
+            }
+            int chunkStart = chunk * TimeRecordFile.CHUNK_SIZE;
+            if (segment == segments.size() || segments.get(segment).capacity() < chunkStart + TimeRecordFile.CHUNK_SIZE) {
+                return false;
+            }
+            int length = segments.get(segment).getInt(chunkStart);
+            if (length == 0) {
+                return false;
+            }
+            position = chunkStart + TimeRecordFile.HEADER_SIZE;
+            chunkEnd = position + length;
+            previous = 0;
+            return true;
+        }
+    }
+}
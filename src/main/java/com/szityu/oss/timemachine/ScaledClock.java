@@ -0,0 +1,58 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock which starts from a given instant and runs the given times faster (or slower) than real time. The elapsed real
+ * time is measured by {@link System#nanoTime()}, so the clock is monotonic.
+ * This implementation is immutable.
+ *
+ * @author Szilard L. Fodor
+ */
+final class ScaledClock extends Clock {
+
+    private final Instant origin;
+    private final long originNanoTime;
+    private final double speed;
+    private final ZoneId zone;
+
+    ScaledClock(Instant origin, long originNanoTime, double speed, ZoneId zone) {
+        this.origin = origin;
+        this.originNanoTime = originNanoTime;
+        this.speed = speed;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public ScaledClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ScaledClock(origin, originNanoTime, speed, zone);
+    }
+
+    @Override
+    public long millis() {
+        long nanos = origin.getNano() + scaledElapsedNanos();
+        return Math.addExact(Math.multiplyExact(origin.getEpochSecond(), RealTimeTraveler.MILLIS_PER_SECOND),
+                Math.floorDiv(nanos, 1_000_000L));
+    }
+
+    @Override
+    public Instant instant() {
+        return origin.plusNanos(scaledElapsedNanos());
+    }
+
+    private long scaledElapsedNanos() {
+        return (long) ((System.nanoTime() - originNanoTime) * speed);
+    }
+
+    @Override
+    public String toString() {
+        return "ScaledClock[" + origin + "," + speed + "x," + zone + "]";
+    }
+}
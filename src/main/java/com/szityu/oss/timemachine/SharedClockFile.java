@@ -0,0 +1,209 @@
+package com.szityu.oss.timemachine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * <p>A memory mapped file of a single record of the traveled time, which is shared by the processes of a host: it's
+ * written by a {@link SharedTimeController}, and read by the {@link SharedTimeTraveler} of every process.</p>
+ * <p>The record is guarded by a sequence lock: the writer makes the sequence odd, writes the fields, then makes it even
+ * again. Besides, the record has a checksum of the fields and the sequence, because plain reads and writes of mapped
+ * memory can be reordered, so a reader accepts a record only if the sequence was the same even number before and after
+ * reading it, and the checksum matches. A zero sequence is the initial record of real time in the default zone.</p>
+ * <p>Reading gives up after {@link #MAX_READ_ATTEMPTS}, so a record, which is never completed, e.g., as the writer has
+ * died while writing it, or a file of another layout can't make the readers spin forever.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class SharedClockFile {
+
+    static final int RECORD_SIZE = 128;
+    static final int MAX_ZONE_LENGTH = 64;
+
+    private static final int SEQUENCE = 0;
+    private static final int TRAVELED = 8;
+    private static final int ORIGIN_EPOCH_NANOS = 16;
+    private static final int ORIGIN_SYSTEM_EPOCH_NANOS = 24;
+    private static final int SPEED = 32;
+    private static final int CHECKSUM = 40;
+    private static final int ZONE_LENGTH = 48;
+    private static final int ZONE = 56;
+    /**
+     * The number of attempts to read a consistent record, each one after yielding to the writer
+     */
+    private static final int MAX_READ_ATTEMPTS = 1_000;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    private SharedClockFile(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the record of the file, creating it with the initial record if it does not exist yet.
+     */
+    static SharedClockFile map(final Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new SharedClockFile(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, RECORD_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map the shared clock file " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Returns the current sequence, which is odd while the record is being written
+     */
+    long sequence() {
+        return buffer.getLong(SEQUENCE);
+    }
+
+    /**
+     * Reads the record, retrying while it's being written.
+     *
+     * @return The record, or null if no consistent record has been read in {@link #MAX_READ_ATTEMPTS}
+     */
+    Record read() {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = buffer.getLong(SEQUENCE);
+            if (sequence == 0) {
+                return new Record(0, false, 0, 0, 0, null);
+            }
+            if ((sequence & 1) == 0) {
+                boolean traveled = buffer.getLong(TRAVELED) != 0;
+                long originEpochNanos = buffer.getLong(ORIGIN_EPOCH_NANOS);
+                long originSystemEpochNanos = buffer.getLong(ORIGIN_SYSTEM_EPOCH_NANOS);
+                double speed = Double.longBitsToDouble(buffer.getLong(SPEED));
+                long checksum = buffer.getLong(CHECKSUM);
+                int zoneLength = buffer.getInt(ZONE_LENGTH);
+                byte[] zone = new byte[Math.max(0, Math.min(zoneLength, MAX_ZONE_LENGTH))];
+                for (int i = 0; i < zone.length; i++) {
+                    zone[i] = buffer.get(ZONE + i);
+                }
+                if (buffer.getLong(SEQUENCE) == sequence && zone.length == zoneLength
+                        && checksum == checksum(sequence, traveled, originEpochNanos, originSystemEpochNanos, speed, zone)) {
+                    return new Record(sequence, traveled, originEpochNanos, originSystemEpochNanos, speed,
+                            zone.length == 0 ? null : new String(zone, StandardCharsets.US_ASCII));
+                }
+            }
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * Writes a new record. Must be called by a single writer at once.
+     */
+    void write(final boolean traveled, final long originEpochNanos, final long originSystemEpochNanos, final double speed,
+               final ZoneId zone) {
+        byte[] zoneBytes = zone == null ? new byte[0] : zone.getId().getBytes(StandardCharsets.US_ASCII);
+        if (zoneBytes.length > MAX_ZONE_LENGTH) {
+            throw new IllegalArgumentException("Zone ID is longer than " + MAX_ZONE_LENGTH + " characters: " + zone);
+        }
+        long sequence = buffer.getLong(SEQUENCE);
+        long next = (sequence | 1) + 1;
+        buffer.putLong(SEQUENCE, next - 1);
+        buffer.putLong(TRAVELED, traveled ? 1 : 0);
+        buffer.putLong(ORIGIN_EPOCH_NANOS, originEpochNanos);
+        buffer.putLong(ORIGIN_SYSTEM_EPOCH_NANOS, originSystemEpochNanos);
+        buffer.putLong(SPEED, Double.doubleToLongBits(speed));
+        buffer.putInt(ZONE_LENGTH, zoneBytes.length);
+        for (int i = 0; i < zoneBytes.length; i++) {
+            buffer.put(ZONE + i, zoneBytes[i]);
+        }
+        buffer.putLong(CHECKSUM, checksum(next, traveled, originEpochNanos, originSystemEpochNanos, speed, zoneBytes));
+        buffer.putLong(SEQUENCE, next);
+    }
+
+    private static long checksum(final long sequence, final boolean traveled, final long originEpochNanos,
+                                 final long originSystemEpochNanos, final double speed, final byte[] zone) {
+        long hash = mix(sequence, traveled ? 1 : 0);
+        hash = mix(hash, originEpochNanos);
+        hash = mix(hash, originSystemEpochNanos);
+        hash = mix(hash, Double.doubleToLongBits(speed));
+        for (byte b : zone) {
+            hash = mix(hash, b);
+        }
+        return mix(hash, zone.length);
+    }
+
+    private static long mix(final long hash, final long value) {
+        long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 32);
+    }
+
+    /**
+     * A consistent record of the file.
+     */
+    static final class Record {
+
+        private final long sequence;
+        private final boolean traveled;
+        private final long originEpochNanos;
+        private final long originSystemEpochNanos;
+        private final double speed;
+        private final String zone;
+
+        private Record(long sequence, boolean traveled, long originEpochNanos, long originSystemEpochNanos, double speed, String zone) {
+            this.sequence = sequence;
+            this.traveled = traveled;
+            this.originEpochNanos = originEpochNanos;
+            this.originSystemEpochNanos = originSystemEpochNanos;
+            this.speed = speed;
+            this.zone = zone;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        boolean traveled() {
+            return traveled;
+        }
+
+        double speed() {
+            return speed;
+        }
+
+        /**
+         * Returns the zone of the record, or {@code null} for the default zone of every process
+         */
+        ZoneId zone() {
+            return zone == null ? null : ZoneId.of(zone);
+        }
+
+        /**
+         * Returns the traveled time at the given time of the system clock
+         */
+        long epochNanosAt(final long systemEpochNanos) {
+            return originEpochNanos + (long) ((systemEpochNanos - originSystemEpochNanos) * speed);
+        }
+
+        /**
+         * Returns the traveler of the record. A flowing time is continued from the time of now derived from the system
+         * clock, and then measured by {@link System#nanoTime()} like any other flow.
+         */
+        TimeTraveler traveler() {
+            ZoneId zoneId = zone == null ? ZoneId.systemDefault() : ZoneId.of(zone);
+            if (!traveled) {
+                return zone == null ? NoopTimeTraveler.getInstance() : new RealTimeTraveler(new SystemClock(zoneId));
+            }
+            long epochNanos = epochNanosAt(RealTimeTraveler.toEpochNano(Instant.now()));
+            Instant time = Instant.ofEpochSecond(Math.floorDiv(epochNanos, RealTimeTraveler.NANOS_PER_SECOND),
+                    Math.floorMod(epochNanos, RealTimeTraveler.NANOS_PER_SECOND));
+            return new RealTimeTraveler(TimeFlow.speed(speed).clockAt(time, zoneId));
+        }
+    }
+}
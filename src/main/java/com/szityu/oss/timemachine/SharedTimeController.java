@@ -0,0 +1,111 @@
+package com.szityu.oss.timemachine;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * <p>Travels in time every process of a host, which follows the same shared clock file by
+ * {@link TimeMachine#useSharedClock(Path)}, e.g., the services of an integration environment started locally. The
+ * travels are written into a small memory mapped file, and every process sees them at its next call of
+ * {@link TimeMachine}.</p>
+ * <p>A single process should control a file, e.g., the test runner, which may follow the shared clock as well. The
+ * methods of a controller are thread safe.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class SharedTimeController {
+
+    private final SharedClockFile file;
+
+    private SharedTimeController(SharedClockFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens a shared clock file, creating it at real time, if it does not exist yet
+     *
+     * @param path The path of the shared clock file
+     * @return A controller of the file
+     */
+    public static SharedTimeController open(final Path path) {
+        return new SharedTimeController(SharedClockFile.map(path));
+    }
+
+    /**
+     * Time travel at the time zone(offset and region) in every process. Does NOT change the instant, and time keeps
+     * flowing as before.
+     *
+     * @param zone The time zone(offset and region) what you want to travel
+     * @throws IllegalStateException if the record of the file can't be read, which is fixed by {@link #reset()}
+     */
+    public synchronized void travelAt(final ZoneId zone) {
+        SharedClockFile.Record record = record();
+        if (!record.traveled()) {
+            file.write(false, 0, 0, 0, zone);
+            return;
+        }
+        long now = RealTimeTraveler.toEpochNano(Instant.now());
+        file.write(true, record.epochNanosAt(now), now, record.speed(), zone);
+    }
+
+    /**
+     * Time travel at the instant of time in every process, where time stands still. Does NOT change the zone.
+     *
+     * @param time The instant of time what you want to travel
+     * @throws IllegalStateException if the record of the file can't be read, which is fixed by {@link #reset()}
+     */
+    public void travelAt(final Instant time) {
+        travelAt(time, TimeFlow.frozen());
+    }
+
+    /**
+     * Time travel at the instant of time in every process, from where time flows as given. Does NOT change the zone.
+     *
+     * @param time The instant of time what you want to travel
+     * @param flow How time flows after traveling
+     * @throws IllegalStateException if the record of the file can't be read, which is fixed by {@link #reset()}
+     */
+    public synchronized void travelAt(final Instant time, final TimeFlow flow) {
+        write(time, flow, record().zone());
+    }
+
+    /**
+     * Time travel at the time with time zone(offset and region) in every process, where time stands still
+     *
+     * @param time The time with time zone(offset and region) what you want to travel
+     */
+    public void travelAt(final ZonedDateTime time) {
+        travelAt(time, TimeFlow.frozen());
+    }
+
+    /**
+     * Time travel at the time with time zone(offset and region) in every process, from where time flows as given
+     *
+     * @param time The time with time zone(offset and region) what you want to travel
+     * @param flow How time flows after traveling
+     */
+    public synchronized void travelAt(final ZonedDateTime time, final TimeFlow flow) {
+        write(time.toInstant(), flow, time.getZone());
+    }
+
+    /**
+     * Reset time of now for real world in every process, in their default time zone
+     */
+    public synchronized void reset() {
+        file.write(false, 0, 0, 0, null);
+    }
+
+    private SharedClockFile.Record record() {
+        SharedClockFile.Record record = file.read();
+        if (record == null) {
+            throw new IllegalStateException("No consistent record in the shared clock file " + file.path() + ", reset it first");
+        }
+        return record;
+    }
+
+    private void write(final Instant time, final TimeFlow flow, final ZoneId zone) {
+        file.write(true, RealTimeTraveler.toEpochNano(time), RealTimeTraveler.toEpochNano(Instant.now()), flow.getSpeed(), zone);
+    }
+}
@@ -0,0 +1,187 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * <p>A traveler of the time shared by the processes of a host through a {@link SharedClockFile}. Every call reads the
+ * sequence of the record, and while it's unchanged, delegates to the traveler of the record read the latest time, so a
+ * read costs a load of the mapped memory more. A changed record is read again, so a travel of the controller process is
+ * seen by the next call in every process. A record, which can't be read consistently, e.g., as the controller has died
+ * while writing it, is not read again until it changes, and the time of the latest read record is kept meanwhile.</p>
+ * <p>Traveling returns a traveler of the local process, which is detached from the shared time until a reset.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class SharedTimeTraveler implements TimeTraveler {
+
+    private final SharedClockFile file;
+    /**
+     * The traveler of the latest read record. It's immutable, so racing threads can only read the record redundantly.
+     */
+    private volatile Generation generation;
+
+    SharedTimeTraveler(SharedClockFile file) {
+        SharedClockFile.Record record = file.read();
+        if (record == null) {
+            throw new IllegalArgumentException("No consistent record in the shared clock file " + file.path());
+        }
+        this.file = file;
+        this.generation = new Generation(record.sequence(), record.traveler());
+    }
+
+    private TimeTraveler current() {
+        Generation current = generation;
+        long sequence = file.sequence();
+        if (sequence != current.sequence) {
+            SharedClockFile.Record record = file.read();
+            current = record == null
+                    ? new Generation(sequence, current.traveler)
+                    : new Generation(record.sequence(), record.traveler());
+            generation = current;
+        }
+        return current.traveler;
+    }
+
+    @Override
+    public TimeTraveler travelAt(final ZoneId zone) {
+        return current().travelAt(zone);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final Instant time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final Instant time, final TimeFlow flow) {
+        return current().travelAt(time, flow);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final ZonedDateTime time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final ZonedDateTime time, final TimeFlow flow) {
+        return current().travelAt(time, flow);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final OffsetDateTime time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final OffsetTime time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final LocalDateTime time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final LocalDate time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler travelAt(final LocalTime time) {
+        return current().travelAt(time);
+    }
+
+    @Override
+    public TimeTraveler advance(final long nanos) {
+        return current().advance(nanos);
+    }
+
+    @Override
+    public Instant instantOfNow() {
+        return current().instantOfNow();
+    }
+
+    @Override
+    public ZonedDateTime zonedDateTimeOfNow() {
+        return current().zonedDateTimeOfNow();
+    }
+
+    @Override
+    public OffsetDateTime offsetDateTimeOfNow() {
+        return current().offsetDateTimeOfNow();
+    }
+
+    @Override
+    public OffsetTime offsetTimeOfNow() {
+        return current().offsetTimeOfNow();
+    }
+
+    @Override
+    public LocalDateTime localDateTimeOfNow() {
+        return current().localDateTimeOfNow();
+    }
+
+    @Override
+    public LocalDate localDateOfNow() {
+        return current().localDateOfNow();
+    }
+
+    @Override
+    public LocalTime localTimeOfNow() {
+        return current().localTimeOfNow();
+    }
+
+    @Override
+    public ZoneId zoneOfNow() {
+        return current().zoneOfNow();
+    }
+
+    @Override
+    public TimeSnapshot snapshot() {
+        return current().snapshot();
+    }
+
+    @Override
+    public long epochMilliOfNow() {
+        return current().epochMilliOfNow();
+    }
+
+    @Override
+    public long epochSecondOfNow() {
+        return current().epochSecondOfNow();
+    }
+
+    @Override
+    public long epochNanoOfNow() {
+        return current().epochNanoOfNow();
+    }
+
+    @Override
+    public long epochDayOfNow() {
+        return current().epochDayOfNow();
+    }
+
+    @Override
+    public long nanoTime() {
+        return current().nanoTime();
+    }
+
+    private static final class Generation {
+
+        private final long sequence;
+        private final TimeTraveler traveler;
+
+        private Generation(long sequence, TimeTraveler traveler) {
+            this.sequence = sequence;
+            this.traveler = traveler;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures elapsed time by {@link TimeMachine#nanoTime()}, so measurements travel with you: nothing elapses while time
+ * is frozen, advancing time elapses exactly the advanced amount, and scaled time flows elapse scaled time.
+ * Apart from starting a new stopwatch and {@link #elapsed()}, measuring does not create any object, so a stopwatch can
+ * be restarted on hot paths by {@link #lap()}. It's not thread-safe.
+ *
+ * @author Szilard L. Fodor
+ */
+public final class Stopwatch {
+
+    private long startNanoTime;
+
+    private Stopwatch(long startNanoTime) {
+        this.startNanoTime = startNanoTime;
+    }
+
+    /**
+     * Starts a new stopwatch at the time of now
+     *
+     * @return The started stopwatch
+     */
+    public static Stopwatch start() {
+        return new Stopwatch(TimeMachine.nanoTime());
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since the given value of {@link TimeMachine#nanoTime()}, without any stopwatch
+     *
+     * @param startNanoTime The value of {@link TimeMachine#nanoTime()} at the start
+     * @return The elapsed nanoseconds
+     */
+    public static long elapsedNanosSince(final long startNanoTime) {
+        return TimeMachine.nanoTime() - startNanoTime;
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since the start
+     *
+     * @return The elapsed nanoseconds
+     */
+    public long elapsedNanos() {
+        return TimeMachine.nanoTime() - startNanoTime;
+    }
+
+    /**
+     * Returns the time elapsed since the start in the given unit, truncated
+     *
+     * @param unit The unit of the result
+     * @return The elapsed time in the given unit
+     */
+    public long elapsed(final TimeUnit unit) {
+        return unit.convert(elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the time elapsed since the start
+     *
+     * @return The elapsed time
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos());
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since the start, and restarts the stopwatch from the same reading of time, so
+     * consecutive laps add up to the total elapsed time
+     *
+     * @return The elapsed nanoseconds of the lap
+     */
+    public long lap() {
+        long now = TimeMachine.nanoTime();
+        long elapsed = now - startNanoTime;
+        startNanoTime = now;
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "Stopwatch[" + elapsed() + "]";
+    }
+}
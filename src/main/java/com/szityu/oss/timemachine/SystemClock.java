@@ -0,0 +1,53 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock of the system clock in a given zone. Unlike {@link Clock#system(ZoneId)}, it's a {@link RealWorldClock}, so
+ * the time elapsed on it, even after {@link #withZone(ZoneId)}, is measured by {@link System#nanoTime()}.
+ * This implementation is immutable.
+ *
+ * @author Szilard L. Fodor
+ */
+final class SystemClock extends Clock implements RealWorldClock {
+
+    private final ZoneId zone;
+
+    SystemClock(final ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Nothing to release, the system clock is queried on every call.
+     */
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public SystemClock withZone(final ZoneId zone) {
+        return zone.equals(this.zone) ? this : new SystemClock(zone);
+    }
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.now();
+    }
+
+    @Override
+    public String toString() {
+        return "SystemClock[" + zone + "]";
+    }
+}
@@ -0,0 +1,94 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Describes how time flows after traveling: it can be frozen (the default of traveling), it can tick at real speed, or it
+ * can run faster or slower than real time. This implementation is immutable.
+ *
+ * @author Szilard L. Fodor
+ */
+public final class TimeFlow {
+
+    private static final TimeFlow FROZEN = new TimeFlow(0);
+    private static final TimeFlow TICKING = new TimeFlow(1);
+
+    private final double speed;
+
+    private TimeFlow(double speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * Time stands still at the traveled time
+     *
+     * @return The frozen {@link TimeFlow}
+     */
+    public static TimeFlow frozen() {
+        return FROZEN;
+    }
+
+    /**
+     * Time ticks at real speed from the traveled time
+     *
+     * @return The ticking {@link TimeFlow}
+     */
+    public static TimeFlow ticking() {
+        return TICKING;
+    }
+
+    /**
+     * Time runs the given times faster than real time from the traveled time, e.g., at speed 3600 an hour passes in a
+     * second. A speed less than 1 slows time down.
+     *
+     * @param speed The multiplier of real time, 0 freezes time
+     * @return A {@link TimeFlow} of the given speed
+     */
+    public static TimeFlow speed(final double speed) {
+        if (!(speed >= 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Speed must be a non-negative finite number: " + speed);
+        }
+        return speed == 0 ? FROZEN : speed == 1 ? TICKING : new TimeFlow(speed);
+    }
+
+    /**
+     * Returns the multiplier of real time
+     *
+     * @return The multiplier of real time, 0 when time is frozen
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Creates a clock, which starts from the given time and flows according to this flow
+     *
+     * @param time The instant of time when the clock starts
+     * @param zone The time zone(offset and region) of the clock
+     * @return A new {@link Clock} instance
+     */
+    Clock clockAt(final Instant time, final ZoneId zone) {
+        if (speed == 0) {
+            return Clock.fixed(time, zone);
+        }
+        // Even real speed is measured by System.nanoTime(), so the flow is monotonic, when the system clock is adjusted
+        return new ScaledClock(time, System.nanoTime(), speed, zone);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof TimeFlow && Double.compare(speed, ((TimeFlow) other).speed) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(speed);
+    }
+
+    @Override
+    public String toString() {
+        return speed == 0 ? "TimeFlow[frozen]" : "TimeFlow[speed=" + speed + "]";
+    }
+}
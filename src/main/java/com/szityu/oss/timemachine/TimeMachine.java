@@ -1,5 +1,11 @@
 package com.szityu.oss.timemachine;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SwitchPoint;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -8,6 +14,13 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
 
 /**
  * <p>This class is used during testing to cover several time base scenarios.</p>
@@ -18,11 +31,99 @@ import java.time.ZonedDateTime;
  */
 public class TimeMachine {
 
-    private static TimeTraveler timeTraveler = NoopTimeTraveler.getInstance();
+    private static final Timeline GLOBAL_TIMELINE = new Timeline(NoopTimeTraveler.getInstance());
+    private static final InheritableThreadLocal<Timeline> SCOPED_TIMELINE = new InheritableThreadLocal<>();
+    /**
+     * The number of running scopes. The thread local timeline is looked up only while it's not zero.
+     */
+    private static final AtomicInteger OPEN_SCOPES = new AtomicInteger();
+    private static volatile TimeTraveler originTimeTraveler = NoopTimeTraveler.getInstance();
+    /**
+     * The replaced origins, which were not stopped, as the global timeline still held a traveler derived from them,
+     * sharing their clock. Guarded by the class.
+     */
+    private static final List<RealTimeTraveler> RETIRED_ORIGINS = new ArrayList<>();
+    private static volatile boolean originsRetired;
+    private static volatile TravelListener[] travelListeners = new TravelListener[0];
+    private static final LongSupplier TICKER = TimeMachine::nanoTime;
+
+    /**
+     * Until the first travel the accessors are bound to the {@link NoopTimeTraveler} as a constant, so the JIT can inline
+     * them straight into the {@code java.time} calls. The first travel invalidates this switch point and from then on
+     * the accessors read the current timeline. Opening a scope invalidates it as well.
+     */
+    private static final SwitchPoint NOT_TRAVELED_YET = new SwitchPoint();
+    private static final MethodHandle TIME_TRAVELER_GETTER = createTimeTravelerGetter();
 
     private TimeMachine() {
     }
 
+    private static MethodHandle createTimeTravelerGetter() {
+        try {
+            MethodHandle noop = MethodHandles.constant(TimeTraveler.class, NoopTimeTraveler.getInstance());
+            MethodHandle current = MethodHandles.lookup()
+                    .findStatic(TimeMachine.class, "currentTimeTraveler", MethodType.methodType(TimeTraveler.class));
+            return NOT_TRAVELED_YET.guardWithTest(noop, current);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static TimeTraveler currentTimeTraveler() {
+        return timeline().get();
+    }
+
+    private static Timeline timeline() {
+        if (OPEN_SCOPES.get() != 0) {
+            Timeline scoped = SCOPED_TIMELINE.get();
+            if (scoped != null && scoped.isOpen()) {
+                return scoped;
+            }
+        }
+        return GLOBAL_TIMELINE;
+    }
+
+    private static TimeTraveler timeTraveler() {
+        try {
+            return (TimeTraveler) TIME_TRAVELER_GETTER.invokeExact();
+        } catch (Throwable e) {
+            // Neither the constant nor the getter can throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replaces the current traveler by the result of the given travel, which is retried if another thread has traveled
+     * in the meantime, so it must not have side effects.
+     */
+    private static void travel(final UnaryOperator<TimeTraveler> travel) {
+        Timeline timeline = timeline();
+        TimeTraveler current;
+        TimeTraveler next;
+        do {
+            current = timeline.get();
+            next = travel.apply(current);
+        } while (next != current && !timeline.compareAndSet(current, next));
+        traveled(timeline, next);
+    }
+
+    private static void traveled(final Timeline timeline, final TimeTraveler traveler) {
+        if (traveler != NoopTimeTraveler.getInstance()) {
+            invalidateNotTraveledYet();
+        }
+        for (TravelListener listener : travelListeners) {
+            if (listener.follows(timeline)) {
+                listener.task.run();
+            }
+        }
+    }
+
+    private static void invalidateNotTraveledYet() {
+        if (!NOT_TRAVELED_YET.hasBeenInvalidated()) {
+            SwitchPoint.invalidateAll(new SwitchPoint[]{NOT_TRAVELED_YET});
+        }
+    }
+
     /**
      * Time travel at the time zone(offset and region). Does NOT change the instant.
      * Just like {@link ZonedDateTime#withZoneSameInstant(ZoneId)} (ZoneId)}.
@@ -31,7 +132,7 @@ public class TimeMachine {
      * @return A zone you want to travel
      */
     public static ZoneId travelAt(final ZoneId zone) {
-        timeTraveler = timeTraveler.travelAt(zone);
+        travel(traveler -> traveler.travelAt(zone));
         return zone;
     }
 
@@ -42,7 +143,21 @@ public class TimeMachine {
      * @return The instant of time what you want to travel
      */
     public static Instant travelAt(final Instant time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
+        return time;
+    }
+
+    /**
+     * Time travel at the instant of time, from where time flows as given, e.g.,
+     * {@code TimeMachine.travelAt(instant, TimeFlow.speed(3600))} lets an hour pass in every real second.
+     * Does NOT change the zone. Traveling at a zone keeps the flow, any other travel freezes time again.
+     *
+     * @param time The instant of time what you want to travel
+     * @param flow How time flows after traveling
+     * @return The instant of time what you want to travel
+     */
+    public static Instant travelAt(final Instant time, final TimeFlow flow) {
+        travel(traveler -> traveler.travelAt(time, flow));
         return time;
     }
 
@@ -53,7 +168,20 @@ public class TimeMachine {
      * @return The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
      */
     public static ZonedDateTime travelAt(final ZonedDateTime time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
+        return time;
+    }
+
+    /**
+     * Time travel at the time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS), from
+     * where time flows as given. Traveling at a zone keeps the flow, any other travel freezes time again.
+     *
+     * @param time The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
+     * @param flow How time flows after traveling
+     * @return The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
+     */
+    public static ZonedDateTime travelAt(final ZonedDateTime time, final TimeFlow flow) {
+        travel(traveler -> traveler.travelAt(time, flow));
         return time;
     }
 
@@ -64,7 +192,7 @@ public class TimeMachine {
      * @return The time with time zone(offset) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
      */
     public static OffsetDateTime travelAt(final OffsetDateTime time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
         return time;
     }
 
@@ -75,7 +203,7 @@ public class TimeMachine {
      * @return The time with time zone(offset) and clock time(HH:mm:ss.SSS) what you want to travel
      */
     public static OffsetTime travelAt(final OffsetTime time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
         return time;
     }
 
@@ -86,7 +214,7 @@ public class TimeMachine {
      * @return The time with time date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
      */
     public static LocalDateTime travelAt(final LocalDateTime time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
         return time;
     }
 
@@ -97,7 +225,7 @@ public class TimeMachine {
      * @return The time with time date(yyyy-MM-dd) what you want to travel
      */
     public static LocalDate travelAt(final LocalDate time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
         return time;
     }
 
@@ -108,17 +236,49 @@ public class TimeMachine {
      * @return The time with clock time(HH:mm:ss.SSS) what you want to travel
      */
     public static LocalTime travelAt(final LocalTime time) {
-        timeTraveler = timeTraveler.travelAt(time);
+        travel(traveler -> traveler.travelAt(time));
         return time;
     }
 
+    /**
+     * Time travel forward by the given amount of time from the time of now. Does NOT change the zone, and time stands
+     * still afterwards. Repeated calls advance time in place, without creating any object, so it fits simulation loops
+     * better than {@code travelAt(instantOfNow().plus(step))}.
+     *
+     * @param duration The amount of time to travel, negative durations travel backward
+     * @throws ArithmeticException if the new time is out of the range of {@link #epochNanoOfNow()}
+     */
+    public static void advance(final Duration duration) {
+        advanceNanos(duration.toNanos());
+    }
+
+    /**
+     * Time travel forward by the given amount of nanoseconds from the time of now. Does NOT change the zone, and time
+     * stands still afterwards. Repeated calls advance time in place, without creating any object.
+     *
+     * @param nanos The nanoseconds to travel, negative values travel backward
+     * @throws ArithmeticException if the new time is out of the range of {@link #epochNanoOfNow()}
+     */
+    public static void advanceNanos(final long nanos) {
+        // Not a lambda to avoid allocation. An in-place advance takes effect at reading the current traveler, even if
+        // another thread replaces it in the meantime (zone travels share the advanced time anyway).
+        Timeline timeline = timeline();
+        TimeTraveler current;
+        TimeTraveler next;
+        do {
+            current = timeline.get();
+            next = current.advance(nanos);
+        } while (next != current && !timeline.compareAndSet(current, next));
+        traveled(timeline, next);
+    }
+
     /**
      * Returns the instant of time when you traveled
      *
      * @return The instant of time when you traveled
      */
     public static Instant instantOfNow() {
-        return timeTraveler.instantOfNow();
+        return timeTraveler().instantOfNow();
     }
 
     /**
@@ -127,7 +287,7 @@ public class TimeMachine {
      * @return The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) when you traveled
      */
     public static ZonedDateTime zonedDateTimeOfNow() {
-        return timeTraveler.zonedDateTimeOfNow();
+        return timeTraveler().zonedDateTimeOfNow();
     }
 
     /**
@@ -136,7 +296,7 @@ public class TimeMachine {
      * @return The time with time zone(offset) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) when you traveled
      */
     public static OffsetDateTime offsetDateTimeOfNow() {
-        return timeTraveler.offsetDateTimeOfNow();
+        return timeTraveler().offsetDateTimeOfNow();
     }
 
     /**
@@ -145,7 +305,7 @@ public class TimeMachine {
      * @return The time with time zone(offset) and clock time(HH:mm:ss.SSS) when you traveled
      */
     public static OffsetTime offsetTimeOfNow() {
-        return timeTraveler.offsetTimeOfNow();
+        return timeTraveler().offsetTimeOfNow();
     }
 
     /**
@@ -154,7 +314,7 @@ public class TimeMachine {
      * @return The time with date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) when you traveled
      */
     public static LocalDateTime localDateTimeOfNow() {
-        return timeTraveler.localDateTimeOfNow();
+        return timeTraveler().localDateTimeOfNow();
     }
 
     /**
@@ -163,7 +323,7 @@ public class TimeMachine {
      * @return The time with date(yyyy-MM-dd) when you traveled
      */
     public static LocalDate localDateOfNow() {
-        return timeTraveler.localDateOfNow();
+        return timeTraveler().localDateOfNow();
     }
 
     /**
@@ -172,13 +332,392 @@ public class TimeMachine {
      * @return The time with clock time(HH:mm:ss.SSS) when you traveled
      */
     public static LocalTime localTimeOfNow() {
-        return timeTraveler.localTimeOfNow();
+        return timeTraveler().localTimeOfNow();
+    }
+
+    /**
+     * Returns the time zone(offset and region) where you traveled. If you have not traveled, it's the default time zone
+     * of the system, which is looked up once a second without allocation, so a {@link java.util.TimeZone#setDefault}
+     * is seen within a second, or immediately after {@link #useSystemClock()}.
+     *
+     * @return The time zone(offset and region) where you traveled
+     */
+    public static ZoneId zoneOfNow() {
+        return timeTraveler().zoneOfNow();
+    }
+
+    /**
+     * Returns the time of now captured by a single clock read. Its representations (e.g., {@link Instant}, {@link LocalDate})
+     * are computed on demand without reading the clock again, so they are consistent with each other.
+     * Prefer it to calling several accessors, when you need the same time in more representations.
+     *
+     * @return The time of now when you traveled
+     */
+    public static TimeSnapshot snapshot() {
+        return timeTraveler().snapshot();
+    }
+
+    /**
+     * Returns the milliseconds from the epoch of 1970-01-01T00:00:00Z when you traveled, without creating any object.
+     * Use it instead of {@code instantOfNow().toEpochMilli()}.
+     *
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     */
+    public static long epochMilliOfNow() {
+        return timeTraveler().epochMilliOfNow();
+    }
+
+    /**
+     * Returns the seconds from the epoch of 1970-01-01T00:00:00Z when you traveled, without creating any object.
+     * Use it instead of {@code instantOfNow().getEpochSecond()}.
+     *
+     * @return The seconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     */
+    public static long epochSecondOfNow() {
+        return timeTraveler().epochSecondOfNow();
+    }
+
+    /**
+     * Returns the nanoseconds from the epoch of 1970-01-01T00:00:00Z when you traveled.
+     * It fits into a {@code long} between the years 1677 and 2262.
+     *
+     * @return The nanoseconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     * @throws ArithmeticException if the traveled time is out of the supported range
+     */
+    public static long epochNanoOfNow() {
+        return timeTraveler().epochNanoOfNow();
+    }
+
+    /**
+     * Returns the local date(yyyy-MM-dd) as days from the epoch of 1970-01-01 when you traveled.
+     * Use it instead of {@code localDateOfNow().toEpochDay()}.
+     *
+     * @return The local date(yyyy-MM-dd) as days from the epoch of 1970-01-01 when you traveled
+     */
+    public static long epochDayOfNow() {
+        return timeTraveler().epochDayOfNow();
+    }
+
+    /**
+     * Returns a {@link java.time.Clock}, which follows every travel and reset of TimeMachine, including the traveled zone.
+     * Use it to make code accepting a clock travel with you. Its {@code millis()} does not create any object, and
+     * {@code withZone} returns a view in the given zone, which still follows the traveled time.
+     *
+     * @return The clock of the time when you traveled
+     */
+    public static TimeMachineClock clock() {
+        return TimeMachineClock.TRAVELED_ZONE;
+    }
+
+    /**
+     * Returns a nanosecond ticker reading {@link #nanoTime()}, for code accepting a ticker instead of a clock, e.g.,
+     * {@code ticker()::getAsLong} as a cache ticker. Reading it does not create any object.
+     *
+     * @return The ticker of the time when you traveled
+     */
+    public static LongSupplier ticker() {
+        return TICKER;
+    }
+
+    /**
+     * Returns the current value of a nanosecond time source for measuring elapsed time, which travels with you: it stands
+     * still while time is frozen, moves by {@code advance} and flows with the speed of the traveled {@link TimeFlow}.
+     * Before traveling and after {@link #reset()} it's {@link System#nanoTime()}. Only the difference of two values is
+     * meaningful, and it does not create any object. See {@link Stopwatch} for measuring with it.
+     *
+     * @return The current value of the nanosecond time source when you traveled
+     */
+    public static long nanoTime() {
+        return timeTraveler().nanoTime();
+    }
+
+    /**
+     * <p>Runs the task in its own timeline, which starts at the given instant of time and does NOT change the zone.
+     * Every date and time obtained through TimeMachine by the task, or by the threads started by it, will represent the time
+     * of this timeline, while other threads are not affected. Traveling within the task changes only this timeline, so
+     * time based tests can run in parallel.</p>
+     * <p>Threads of pools don't inherit the timeline, unless their tasks are wrapped by
+     * {@link #withCurrentTimeline(Runnable)}. The timeline ends, when the task returns.</p>
+     *
+     * @param time The instant of time where the timeline starts
+     * @param task The task to run in the timeline
+     */
+    public static void runAt(final Instant time, final Runnable task) {
+        Timeline timeline = new Timeline(timeTraveler().travelAt(time));
+        Timeline previous = openScope(timeline);
+        try {
+            task.run();
+        } finally {
+            closeScope(timeline, previous);
+        }
+    }
+
+    /**
+     * Calls the task in its own timeline, which starts at the given instant of time and does NOT change the zone.
+     * See {@link #runAt(Instant, Runnable)} for details.
+     *
+     * @param time The instant of time where the timeline starts
+     * @param task The task to call in the timeline
+     * @param <T>  The type of the result of the task
+     * @return The result of the task
+     * @throws Exception if the task throws it
+     */
+    public static <T> T callAt(final Instant time, final Callable<T> task) throws Exception {
+        Timeline timeline = new Timeline(timeTraveler().travelAt(time));
+        Timeline previous = openScope(timeline);
+        try {
+            return task.call();
+        } finally {
+            closeScope(timeline, previous);
+        }
+    }
+
+    /**
+     * Wraps the task to run in the timeline of the caller, even on another thread, e.g., on a pool of an executor.
+     * When the caller is not in the scope of {@link #runAt(Instant, Runnable)}, the task runs in the global timeline.
+     *
+     * @param task The task to wrap
+     * @return The task, which runs in the timeline of the caller
+     */
+    public static Runnable withCurrentTimeline(final Runnable task) {
+        Timeline timeline = timeline();
+        if (timeline == GLOBAL_TIMELINE) {
+            return task;
+        }
+        return () -> {
+            Timeline previous = enterScope(timeline);
+            try {
+                task.run();
+            } finally {
+                leaveScope(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps the task to be called in the timeline of the caller, even on another thread, e.g., on a pool of an executor.
+     * When the caller is not in the scope of {@link #runAt(Instant, Runnable)}, the task is called in the global timeline.
+     *
+     * @param task The task to wrap
+     * @param <T>  The type of the result of the task
+     * @return The task, which is called in the timeline of the caller
+     */
+    public static <T> Callable<T> withCurrentTimeline(final Callable<T> task) {
+        Timeline timeline = timeline();
+        if (timeline == GLOBAL_TIMELINE) {
+            return task;
+        }
+        return () -> {
+            Timeline previous = enterScope(timeline);
+            try {
+                return task.call();
+            } finally {
+                leaveScope(previous);
+            }
+        };
+    }
+
+    private static Timeline openScope(final Timeline timeline) {
+        OPEN_SCOPES.incrementAndGet();
+        invalidateNotTraveledYet();
+        return enterScope(timeline);
+    }
+
+    private static void closeScope(final Timeline timeline, final Timeline previous) {
+        leaveScope(previous);
+        timeline.close();
+        OPEN_SCOPES.decrementAndGet();
+    }
+
+    private static Timeline enterScope(final Timeline timeline) {
+        Timeline previous = SCOPED_TIMELINE.get();
+        SCOPED_TIMELINE.set(timeline);
+        return previous;
+    }
+
+    private static void leaveScope(final Timeline previous) {
+        if (previous == null) {
+            SCOPED_TIMELINE.remove();
+        } else {
+            SCOPED_TIMELINE.set(previous);
+        }
+    }
+
+    /**
+     * Registers a listener, which is run by the traveling thread after every travel, advance and reset in the timeline of
+     * the caller, so the listener sees the changed time. Travels in the scopes of other threads, e.g., of parallel tests,
+     * don't run it. When the scope of the timeline ends, the listener follows the global timeline, like the threads of
+     * the scope. Useful for components, which have to react to time changes immediately, e.g., schedulers and caches.
+     * Listeners must not throw, and the traveling thread waits for them to complete.
+     *
+     * @param listener The listener to run after time changes
+     */
+    public static synchronized void addTravelListener(final Runnable listener) {
+        TravelListener[] listeners = Arrays.copyOf(travelListeners, travelListeners.length + 1);
+        listeners[listeners.length - 1] = new TravelListener(timeline(), listener);
+        travelListeners = listeners;
+    }
+
+    /**
+     * Unregisters a listener registered by {@link #addTravelListener(Runnable)}, from any thread.
+     *
+     * @param listener The listener to unregister
+     */
+    public static synchronized void removeTravelListener(final Runnable listener) {
+        List<TravelListener> listeners = new ArrayList<>(Arrays.asList(travelListeners));
+        for (int i = 0; i < listeners.size(); i++) {
+            if (listeners.get(i).task.equals(listener)) {
+                listeners.remove(i);
+                travelListeners = listeners.toArray(new TravelListener[0]);
+                return;
+            }
+        }
     }
 
     /**
      * Reset time of now for real world
      */
     public static void reset() {
-        timeTraveler = NoopTimeTraveler.getInstance();
+        TimeTraveler origin = originTimeTraveler;
+        Timeline timeline = timeline();
+        timeline.set(origin);
+        traveled(timeline, origin);
+        if (originsRetired && timeline == GLOBAL_TIMELINE) {
+            stopRetiredOrigins();
+        }
+    }
+
+    /**
+     * Obtain real world time from a coarse clock, which is refreshed by a background daemon thread at the given resolution,
+     * instead of querying the system clock at every call. Useful when time is queried very frequently, but sub-resolution
+     * precision is not needed. The clock uses the current default time zone of the system.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     *
+     * @param resolution The period of refreshing the time, e.g., 1 or 10 milliseconds
+     */
+    public static void useCoarseClock(final Duration resolution) {
+        useOriginTimeTraveler(new RealTimeTraveler(CoarseClock.start(resolution, ZoneId.systemDefault())));
+    }
+
+    /**
+     * Obtain real world time of nanosecond resolution, by extrapolating the system clock with {@link System#nanoTime()}
+     * between calibrations, which are done every second by a background daemon thread. Useful on hosts, where the system
+     * clock ticks by milliseconds, or when the order of events must be kept, as its time is strictly monotonic, even
+     * across threads. Calibrations never step it back, but slow it down to catch up, unless the system clock has been set back
+     * by more than 100 milliseconds. The clock uses the current default time zone of the system.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     */
+    public static void usePreciseClock() {
+        usePreciseClock(Duration.ofSeconds(1));
+    }
+
+    /**
+     * Obtain real world time of nanosecond resolution, like {@link #usePreciseClock()}, but calibrated at the given period.
+     * A shorter period keeps the clock closer to the system clock, which is adjusted by time synchronization.
+     *
+     * @param calibrationPeriod The period of calibrating the clock to the system clock
+     */
+    public static void usePreciseClock(final Duration calibrationPeriod) {
+        useOriginTimeTraveler(new RealTimeTraveler(PreciseClock.start(calibrationPeriod, ZoneId.systemDefault())));
+    }
+
+    /**
+     * Obtain real world time from the system clock, and record every read into memory mapped segment files of the given
+     * path, e.g., {@code time.rec.0}, {@code time.rec.1}, so the same times can be returned again by
+     * {@link #useReplayClock(Path)}. Recording neither locks nor allocates, as every thread records into its own buffer.
+     * Switching to another clock writes the buffers of every thread, so do it after the recording threads have finished.
+     * If you have traveled at a zone, the recording continues until {@link #reset()}, as the traveled time shares it.
+     * The clock uses the current default time zone of the system.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     *
+     * @param path The path of the recording, whose existing segments are overwritten
+     */
+    public static void useRecordingClock(final Path path) {
+        useOriginTimeTraveler(new RealTimeTraveler(RecordingClock.start(path, ZoneId.systemDefault())));
+    }
+
+    /**
+     * Obtain the times recorded by {@link #useRecordingClock(Path)} one by one, in the order of the recording, and the
+     * last one after all of them are returned. The reads of a recording thread are replayed in order, but the reads of
+     * different threads are replayed in batches of each thread, not interleaved as they happened, so a replay reproduces
+     * the time seen by a single thread exactly. The clock uses the current default time zone of the system.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     *
+     * @param path The path of the recording
+     * @throws IllegalArgumentException if there is no recorded time at the path
+     */
+    public static void useReplayClock(final Path path) {
+        useOriginTimeTraveler(new RealTimeTraveler(ReplayClock.start(path, ZoneId.systemDefault())));
+    }
+
+    /**
+     * Obtain the time shared by the processes of a host through a memory mapped clock file, which is traveled by a
+     * {@link SharedTimeController} of another (or the same) process. Every call reads the record of the file, so a
+     * travel of the controller is seen at the next call, and a call costs only a load of the mapped memory more, while
+     * the record is unchanged. Traveling in this process detaches it from the shared time until {@link #reset()}.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     *
+     * @param path The path of the shared clock file, which is created at real time, if it does not exist yet
+     * @throws IllegalArgumentException if the file has no consistent record, e.g., it's not a shared clock file
+     */
+    public static void useSharedClock(final Path path) {
+        useOriginTimeTraveler(new SharedTimeTraveler(SharedClockFile.map(path)));
+    }
+
+    /**
+     * Obtain real world time from the system clock at every call. This is the default. It looks up the default time
+     * zone of the system again, e.g., after {@link java.util.TimeZone#setDefault}.
+     * If you have not traveled yet, it takes effect immediately, otherwise after {@link #reset()}.
+     */
+    public static void useSystemClock() {
+        NoopTimeTraveler.getInstance().refreshZone();
+        useOriginTimeTraveler(NoopTimeTraveler.getInstance());
+    }
+
+    private static synchronized void useOriginTimeTraveler(final TimeTraveler origin) {
+        TimeTraveler previousOrigin = originTimeTraveler;
+        originTimeTraveler = origin;
+        if (previousOrigin instanceof RealTimeTraveler) {
+            // Stopped, when the global timeline no longer holds a traveler derived from it, e.g., by a zone travel
+            RETIRED_ORIGINS.add((RealTimeTraveler) previousOrigin);
+            originsRetired = true;
+        }
+        if (GLOBAL_TIMELINE.compareAndSet(previousOrigin, origin)) {
+            traveled(GLOBAL_TIMELINE, origin);
+            stopRetiredOrigins();
+        }
+    }
+
+    private static synchronized void stopRetiredOrigins() {
+        // A racing reset may have set an older origin
+        if (GLOBAL_TIMELINE.get() != originTimeTraveler) {
+            return;
+        }
+        for (RealTimeTraveler retired : RETIRED_ORIGINS) {
+            retired.stop();
+        }
+        RETIRED_ORIGINS.clear();
+        originsRetired = false;
+    }
+
+    /**
+     * A travel listener bound to the timeline, where it has been registered.
+     */
+    private static final class TravelListener {
+
+        private final Timeline timeline;
+        private final Runnable task;
+
+        private TravelListener(Timeline timeline, Runnable task) {
+            this.timeline = timeline;
+            this.task = task;
+        }
+
+        /**
+         * Whether the travels of the timeline are seen by the listener. A closed scope falls back to the global timeline.
+         */
+        boolean follows(final Timeline traveled) {
+            return traveled == timeline || (traveled == GLOBAL_TIMELINE && !timeline.isOpen());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * A {@link Clock} view of {@link TimeMachine}, which follows every travel and reset, so it can be passed to code
+ * expecting a clock, e.g., caches, metrics registries and token validators. {@link #millis()} does not create any
+ * object. The clock follows the traveled zone as well, unless a zone is fixed by {@link #withZone(ZoneId)}, which still
+ * follows the traveled time.
+ *
+ * @author Szilard L. Fodor
+ */
+public final class TimeMachineClock extends Clock {
+
+    static final TimeMachineClock TRAVELED_ZONE = new TimeMachineClock(null);
+
+    /**
+     * The fixed zone of the view, or null to follow the traveled zone
+     */
+    private final ZoneId zone;
+
+    private TimeMachineClock(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone == null ? TimeMachine.zoneOfNow() : zone;
+    }
+
+    @Override
+    public TimeMachineClock withZone(final ZoneId zone) {
+        Objects.requireNonNull(zone, "zone");
+        return zone.equals(this.zone) ? this : new TimeMachineClock(zone);
+    }
+
+    @Override
+    public long millis() {
+        return TimeMachine.epochMilliOfNow();
+    }
+
+    @Override
+    public Instant instant() {
+        return TimeMachine.instantOfNow();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof TimeMachineClock && Objects.equals(zone, ((TimeMachineClock) obj).zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(zone) + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeMachineClock[" + (zone == null ? "traveled zone" : zone) + "]";
+    }
+}
@@ -0,0 +1,85 @@
+package com.szityu.oss.timemachine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>The format of the files of recorded time reads, which are written by {@link RecordingClock} and read by
+ * {@link ReplayClock}.</p>
+ * <p>A recording is rolled over segments of {@link #SEGMENT_SIZE} bytes named by the path of the recording suffixed by
+ * their index, e.g., {@code time.rec.0}, {@code time.rec.1}. A segment is memory mapped and divided into chunks of
+ * {@link #CHUNK_SIZE} bytes, which are written by a single thread at once. A chunk starts with the length of its payload
+ * as an {@code int}, and its payload is a sequence of epoch nanos, each one as the zigzag varint of its difference from
+ * the previous one of the chunk, or from 0 at the first one. The first chunk with a zero length ends the recording.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class TimeRecordFile {
+
+    static final int CHUNK_SIZE = 4096;
+    static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    static final int CHUNKS_PER_SEGMENT = SEGMENT_SIZE / CHUNK_SIZE;
+    static final int HEADER_SIZE = Integer.BYTES;
+    /**
+     * The maximal length of the varint of a {@code long}
+     */
+    static final int MAX_VARINT_SIZE = 10;
+
+    private TimeRecordFile() {
+    }
+
+    static Path segmentPath(final Path path, final int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    /**
+     * Deletes the segments of a previous recording, so they are not mistaken for the continuation of a new one.
+     */
+    static void deleteSegments(final Path path) {
+        try {
+            for (int index = 0; Files.deleteIfExists(segmentPath(path, index)); index++) {
+                // Deleted
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete the segments of " + path, e);
+        }
+    }
+
+    /**
+     * Maps a whole segment, creating it if it does not exist yet.
+     */
+    static MappedByteBuffer mapForWriting(final Path path, final int index) {
+        try (FileChannel channel = FileChannel.open(segmentPath(path, index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map segment " + index + " of " + path, e);
+        }
+    }
+
+    static MappedByteBuffer mapForReading(final Path path, final int index) {
+        try (FileChannel channel = FileChannel.open(segmentPath(path, index), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map segment " + index + " of " + path, e);
+        }
+    }
+
+    /**
+     * Writes the zigzag varint of a value, and returns the index after it.
+     */
+    static int writeVarint(final byte[] destination, int index, final long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            destination[index++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        destination[index++] = (byte) zigzag;
+        return index;
+    }
+}
@@ -0,0 +1,190 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * <p>The time of now captured by a single clock read, which can be represented in several ways. All of the representations
+ * belong to the very same instant, so they are consistent with each other, e.g., they can't straddle midnight.</p>
+ * <p>The representations are computed when they are first requested. This class is immutable and thread-safe.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class TimeSnapshot {
+
+    private final Instant instant;
+    private final ZoneId zone;
+    private final ZoneOffset offset;
+
+    // Lazily computed immutable values, racing threads can only compute them redundantly
+    private LocalDateTime localDateTime;
+    private ZonedDateTime zonedDateTime;
+    private OffsetDateTime offsetDateTime;
+
+    TimeSnapshot(Instant instant, ZoneId zone, ZoneOffset offset) {
+        this.instant = instant;
+        this.zone = zone;
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the seconds from the epoch of 1970-01-01T00:00:00Z
+     *
+     * @return The seconds from the epoch of 1970-01-01T00:00:00Z
+     */
+    public long getEpochSecond() {
+        return instant.getEpochSecond();
+    }
+
+    /**
+     * Returns the nanoseconds within the second
+     *
+     * @return The nanoseconds within the second
+     */
+    public int getNano() {
+        return instant.getNano();
+    }
+
+    /**
+     * Returns the time zone(offset and region)
+     *
+     * @return The time zone(offset and region)
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns the offset of the time zone
+     *
+     * @return The offset of the time zone
+     */
+    public ZoneOffset getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the milliseconds from the epoch of 1970-01-01T00:00:00Z
+     *
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z
+     */
+    public long toEpochMilli() {
+        return instant.toEpochMilli();
+    }
+
+    /**
+     * Returns the local date(yyyy-MM-dd) as days from the epoch of 1970-01-01
+     *
+     * @return The local date(yyyy-MM-dd) as days from the epoch of 1970-01-01
+     */
+    public long toEpochDay() {
+        return Math.floorDiv(instant.getEpochSecond() + offset.getTotalSeconds(), RealTimeTraveler.SECONDS_PER_DAY);
+    }
+
+    /**
+     * Returns the instant of time
+     *
+     * @return The instant of time
+     */
+    public Instant toInstant() {
+        return instant;
+    }
+
+    /**
+     * Returns the time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     *
+     * @return The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     */
+    public ZonedDateTime toZonedDateTime() {
+        ZonedDateTime result = zonedDateTime;
+        if (result == null) {
+            result = ZonedDateTime.ofInstant(toLocalDateTime(), offset, zone);
+            zonedDateTime = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time with time zone(offset) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     *
+     * @return The time with time zone(offset) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     */
+    public OffsetDateTime toOffsetDateTime() {
+        OffsetDateTime result = offsetDateTime;
+        if (result == null) {
+            result = OffsetDateTime.of(toLocalDateTime(), offset);
+            offsetDateTime = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time with time zone(offset) and clock time(HH:mm:ss.SSS)
+     *
+     * @return The time with time zone(offset) and clock time(HH:mm:ss.SSS)
+     */
+    public OffsetTime toOffsetTime() {
+        return toOffsetDateTime().toOffsetTime();
+    }
+
+    /**
+     * Returns the time with date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     *
+     * @return The time with date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
+     */
+    public LocalDateTime toLocalDateTime() {
+        LocalDateTime result = localDateTime;
+        if (result == null) {
+            result = LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offset);
+            localDateTime = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time with date(yyyy-MM-dd)
+     *
+     * @return The time with date(yyyy-MM-dd)
+     */
+    public LocalDate toLocalDate() {
+        return toLocalDateTime().toLocalDate();
+    }
+
+    /**
+     * Returns the time with clock time(HH:mm:ss.SSS)
+     *
+     * @return The time with clock time(HH:mm:ss.SSS)
+     */
+    public LocalTime toLocalTime() {
+        return toLocalDateTime().toLocalTime();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TimeSnapshot)) {
+            return false;
+        }
+        TimeSnapshot snapshot = (TimeSnapshot) other;
+        return instant.equals(snapshot.instant) && zone.equals(snapshot.zone) && offset.equals(snapshot.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return (instant.hashCode() * 31 + zone.hashCode()) * 31 + offset.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toZonedDateTime().toString();
+    }
+}
@@ -10,7 +10,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 /**
- * Implementations of this interface achieve time traveling functionality, and they should be <b>immutable</b>.
+ * Implementations of this interface achieve time traveling functionality, and they should be <b>immutable</b>, except
+ * for {@link #advance(long)}, which may move time of the returned instance in place.
  *
  * @author Szilard L. Fodor
  */
@@ -33,6 +34,15 @@ interface TimeTraveler {
      */
     TimeTraveler travelAt(final Instant time);
 
+    /**
+     * Time travel at the instant of time, from where time flows as given. Does NOT change the zone.
+     *
+     * @param time The instant of time what you want to travel
+     * @param flow How time flows after traveling
+     * @return A new, modified {@link TimeTraveler} instance
+     */
+    TimeTraveler travelAt(final Instant time, final TimeFlow flow);
+
     /**
      * Time travel at the time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
      *
@@ -41,6 +51,16 @@ interface TimeTraveler {
      */
     TimeTraveler travelAt(final ZonedDateTime time);
 
+    /**
+     * Time travel at the time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS), from
+     * where time flows as given.
+     *
+     * @param time The time with time zone(offset and region) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS) what you want to travel
+     * @param flow How time flows after traveling
+     * @return A new, modified {@link TimeTraveler} instance
+     */
+    TimeTraveler travelAt(final ZonedDateTime time, final TimeFlow flow);
+
     /**
      * Time travel at the time with time zone(offset) and date(yyyy-MM-dd) and clock time(HH:mm:ss.SSS)
      *
@@ -82,6 +102,16 @@ interface TimeTraveler {
      */
     TimeTraveler travelAt(final LocalTime time);
 
+    /**
+     * Time travel by the given amount of nanoseconds from the time of now. Does NOT change the zone, and time stands still
+     * afterwards. Implementations may advance in place without creating any object, and return themselves.
+     *
+     * @param nanos The nanoseconds to travel, negative values travel backward
+     * @return The {@link TimeTraveler} instance at the new time
+     * @throws ArithmeticException if the new time is out of the range of {@link #epochNanoOfNow()}
+     */
+    TimeTraveler advance(final long nanos);
+
     /**
      * Returns the instant of time when you traveled
      *
@@ -131,4 +161,56 @@ interface TimeTraveler {
      */
     LocalTime localTimeOfNow();
 
+    /**
+     * Returns the time zone(offset and region) where you traveled
+     *
+     * @return The time zone(offset and region) where you traveled
+     */
+    ZoneId zoneOfNow();
+
+    /**
+     * Returns the time of now captured by a single clock read, which can be represented in several consistent ways
+     *
+     * @return The time of now when you traveled
+     */
+    TimeSnapshot snapshot();
+
+    /**
+     * Returns the milliseconds from the epoch of 1970-01-01T00:00:00Z when you traveled, without creating any object
+     *
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     */
+    long epochMilliOfNow();
+
+    /**
+     * Returns the seconds from the epoch of 1970-01-01T00:00:00Z when you traveled, without creating any object
+     *
+     * @return The seconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     */
+    long epochSecondOfNow();
+
+    /**
+     * Returns the nanoseconds from the epoch of 1970-01-01T00:00:00Z when you traveled.
+     * It fits into a {@code long} between the years 1677 and 2262.
+     *
+     * @return The nanoseconds from the epoch of 1970-01-01T00:00:00Z when you traveled
+     * @throws ArithmeticException if the traveled time is out of the supported range
+     */
+    long epochNanoOfNow();
+
+    /**
+     * Returns the local date(yyyy-MM-dd) as days from the epoch of 1970-01-01 when you traveled
+     *
+     * @return The local date(yyyy-MM-dd) as days from the epoch of 1970-01-01 when you traveled
+     */
+    long epochDayOfNow();
+
+    /**
+     * Returns the current value of a nanosecond time source, like {@link System#nanoTime()}, which stands still when
+     * time is frozen, and moves together with the traveled time. Only the difference of two values is meaningful.
+     *
+     * @return The current value of the nanosecond time source when you traveled
+     */
+    long nanoTime();
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.szityu.oss.timemachine;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Holds the current {@link TimeTraveler} of a timeline. Reading it is a plain load on x86, while travels replace it by
+ * compare-and-set, so concurrent travels are not lost and every thread sees them.
+ * A timeline is either the global one or the one of a scope, which is closed when the scope ends.
+ *
+ * @author Szilard L. Fodor
+ */
+final class Timeline {
+
+    private static final AtomicReferenceFieldUpdater<Timeline, TimeTraveler> TRAVELER =
+            AtomicReferenceFieldUpdater.newUpdater(Timeline.class, TimeTraveler.class, "traveler");
+
+    private volatile TimeTraveler traveler;
+    private volatile boolean open = true;
+
+    Timeline(TimeTraveler traveler) {
+        this.traveler = traveler;
+    }
+
+    TimeTraveler get() {
+        return traveler;
+    }
+
+    void set(final TimeTraveler traveler) {
+        this.traveler = traveler;
+    }
+
+    boolean compareAndSet(final TimeTraveler expected, final TimeTraveler traveler) {
+        return TRAVELER.compareAndSet(this, expected, traveler);
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    void close() {
+        open = false;
+    }
+}
@@ -0,0 +1,142 @@
+package com.szityu.oss.timemachine;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The offset transitions of a zone in a window of years around an instant, which are looked up by binary search instead
+ * of walking the {@link ZoneRules}. The interval of the latest lookup is remembered, so consecutive lookups of close
+ * instants are O(1). Instants out of the window are delegated to the {@link ZoneRules}.
+ * Tables are shared per zone while their window covers the requested instant with a sufficient margin.
+ *
+ * @author Szilard L. Fodor
+ */
+final class ZoneOffsetTable {
+
+    private static final long SECONDS_PER_YEAR = 31_556_952L;
+    private static final long WINDOW_SECONDS = 4 * SECONDS_PER_YEAR;
+    private static final long REUSE_MARGIN_SECONDS = SECONDS_PER_YEAR;
+    private static final ConcurrentMap<ZoneId, ZoneOffsetTable> TABLES = new ConcurrentHashMap<>();
+
+    private final ZoneRules rules;
+    private final long windowStart;
+    private final long windowEnd;
+    /**
+     * The epoch seconds of the transitions within the window in ascending order.
+     */
+    private final long[] transitions;
+    /**
+     * The offset before the first transition, then the offsets after each transition.
+     */
+    private final ZoneOffset[] offsets;
+    /**
+     * The index of the interval of the latest lookup. Racing threads can only overwrite it with another valid index.
+     */
+    private int lastIndex;
+
+    private ZoneOffsetTable(ZoneRules rules, long windowStart, long windowEnd, long[] transitions, ZoneOffset[] offsets) {
+        this.rules = rules;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.transitions = transitions;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Returns a table, which covers the given instant with at least one year of margin in both directions.
+     *
+     * @param zone        The time zone(offset and region) of the table
+     * @param epochSecond The instant in the middle of the window
+     * @return A new or a shared {@link ZoneOffsetTable} instance
+     */
+    static ZoneOffsetTable of(final ZoneId zone, final long epochSecond) {
+        ZoneOffsetTable table = TABLES.get(zone);
+        if (table == null || !table.covers(epochSecond - REUSE_MARGIN_SECONDS) || !table.covers(epochSecond + REUSE_MARGIN_SECONDS)) {
+            table = create(zone.getRules(), epochSecond);
+            TABLES.put(zone, table);
+        }
+        return table;
+    }
+
+    private static ZoneOffsetTable create(final ZoneRules rules, final long epochSecond) {
+        if (rules.isFixedOffset()) {
+            return new ZoneOffsetTable(rules, Long.MIN_VALUE, Long.MAX_VALUE, new long[0], new ZoneOffset[]{rules.getOffset(Instant.EPOCH)});
+        }
+        long windowStart = Math.max(epochSecond, Instant.MIN.getEpochSecond() + WINDOW_SECONDS) - WINDOW_SECONDS;
+        long windowEnd = Math.min(epochSecond, Instant.MAX.getEpochSecond() - WINDOW_SECONDS) + WINDOW_SECONDS;
+        List<ZoneOffsetTransition> window = new ArrayList<>();
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(windowStart));
+        while (transition != null && transition.toEpochSecond() < windowEnd) {
+            window.add(transition);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        long[] transitions = new long[window.size()];
+        ZoneOffset[] offsets = new ZoneOffset[window.size() + 1];
+        offsets[0] = rules.getOffset(Instant.ofEpochSecond(windowStart));
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = window.get(i).toEpochSecond();
+            offsets[i + 1] = window.get(i).getOffsetAfter();
+        }
+        return new ZoneOffsetTable(rules, windowStart, windowEnd, transitions, offsets);
+    }
+
+    boolean covers(final long epochSecond) {
+        return windowStart <= epochSecond && epochSecond < windowEnd;
+    }
+
+    /**
+     * Returns the offset at the given instant.
+     *
+     * @param epochSecond The instant in epoch seconds
+     * @return The offset at the given instant
+     */
+    ZoneOffset offsetAt(final long epochSecond) {
+        return covers(epochSecond) ? offsets[indexOf(epochSecond)] : rules.getOffset(Instant.ofEpochSecond(epochSecond));
+    }
+
+    /**
+     * Returns the index of the interval, which contains the given instant. Must be called only for covered instants.
+     *
+     * @param epochSecond The instant in epoch seconds
+     * @return The index of the interval between two transitions (or the window bounds)
+     */
+    int indexOf(final long epochSecond) {
+        int index = lastIndex;
+        if (intervalStart(index) <= epochSecond && epochSecond < intervalEnd(index)) {
+            return index;
+        }
+        index = Arrays.binarySearch(transitions, epochSecond);
+        // An exact match is the first second of the interval after the transition
+        index = index < 0 ? -index - 1 : index + 1;
+        lastIndex = index;
+        return index;
+    }
+
+    ZoneOffset offset(final int index) {
+        return offsets[index];
+    }
+
+    /**
+     * @param index The index of an interval
+     * @return The first epoch second of the interval, which is known to have the offset of the interval
+     */
+    long intervalStart(final int index) {
+        return index == 0 ? windowStart : transitions[index - 1];
+    }
+
+    /**
+     * @param index The index of an interval
+     * @return The first epoch second after the interval, which is not known to have the offset of the interval
+     */
+    long intervalEnd(final int index) {
+        return index == transitions.length ? windowEnd : transitions[index];
+    }
+}
@@ -0,0 +1,396 @@
+package com.szityu.oss.timemachine.cache;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import com.szityu.oss.timemachine.concurrent.HierarchicalTimingWheel;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <p>A concurrent map, whose entries expire after a time to live measured by the epoch millis of {@link TimeMachine}, so
+ * expiry can be tested by traveling instead of sleeping.</p>
+ * <p>Every entry has its own time to live, which starts at writing the entry, or, with {@link Expiry#AFTER_ACCESS}, is
+ * renewed by every read. Expired entries are never returned. They are removed from the map by a
+ * {@link HierarchicalTimingWheel} of millisecond ticks, so eviction is amortised O(1) instead of scanning the map: it's
+ * advanced by the writes, by {@link #cleanUp()}, and by every travel, which purges the expired entries in bulk right
+ * away. Only the travels in the timeline of the thread creating the map purge it, so the travels of parallel tests
+ * in the scopes of {@link TimeMachine#runAt} don't expire its entries early. Reads only write the renewed deadline of
+ * the entry, and overwrites update the entry in place, as its timeout is rescheduled lazily, when it fires.</p>
+ * <p>With a maximum size, the writes evict entries beyond it by the second-chance (CLOCK) policy: entries are evicted
+ * in the order of their writing, but an entry read since it was last considered is kept for another round.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @author Szilard L. Fodor
+ */
+public class ExpiringMap<K, V> implements AutoCloseable {
+
+    /**
+     * The number of stale nodes tolerated in the eviction queue besides the entries of the map, before compacting it
+     */
+    private static final int MIN_STALE_NODES = 64;
+    /**
+     * The number of nodes of the eviction queue visited by a write at most, so a write never waits for the others
+     */
+    private static final int WRITE_EVICTION_BUDGET = 16;
+
+    private final ConcurrentHashMap<K, Entry> map = new ConcurrentHashMap<>();
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 256, 4);
+    private final Queue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedNodes = new AtomicInteger();
+    private final Runnable travelListener = new Purger(this);
+    private final long timeToLiveMillis;
+    private final boolean expireAfterAccess;
+    private final int maximumSize;
+
+    /**
+     * Creates an unbounded map, whose entries expire after being written
+     *
+     * @param timeToLive The default time to live of the entries
+     */
+    public ExpiringMap(final Duration timeToLive) {
+        this(timeToLive, Expiry.AFTER_WRITE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a map.
+     *
+     * @param timeToLive  The default time to live of the entries
+     * @param expiry      Whether the time to live is renewed by reads
+     * @param maximumSize The maximum number of entries
+     */
+    public ExpiringMap(final Duration timeToLive, final Expiry expiry, final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.timeToLiveMillis = toMillis(timeToLive);
+        this.expireAfterAccess = expiry == Expiry.AFTER_ACCESS;
+        this.maximumSize = maximumSize;
+        TimeMachine.addTravelListener(travelListener);
+    }
+
+    private static long toMillis(final Duration timeToLive) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+        }
+        return timeToLive.toMillis();
+    }
+
+    /**
+     * Returns the value of a key, unless it's missing or expired. With {@link Expiry#AFTER_ACCESS} it renews the time to
+     * live of the entry.
+     *
+     * @param key The key
+     * @return The value, or null if the key is missing or expired
+     */
+    public V get(final K key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = TimeMachine.epochMilliOfNow();
+        if (entry.isExpired(now)) {
+            retireIfExpired(entry, now);
+            return null;
+        }
+        touch(entry, now);
+        return entry.value;
+    }
+
+    private void touch(final Entry entry, final long now) {
+        if (expireAfterAccess) {
+            long deadline = deadlineOf(now, entry.timeToLiveMillis);
+            // Concurrent reads of a hot entry mostly agree on the deadline, so don't write the same line again
+            if (entry.deadline != deadline) {
+                entry.deadline = deadline;
+            }
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+    }
+
+    /**
+     * Puts a value with the default time to live
+     *
+     * @param key   The key
+     * @param value The value
+     * @return The previous value, or null if the key was missing or expired
+     */
+    public V put(final K key, final V value) {
+        return put(key, value, timeToLiveMillis);
+    }
+
+    /**
+     * Puts a value with its own time to live
+     *
+     * @param key        The key
+     * @param value      The value
+     * @param timeToLive The time to live of the entry
+     * @return The previous value, or null if the key was missing or expired
+     */
+    public V put(final K key, final V value, final Duration timeToLive) {
+        return put(key, value, toMillis(timeToLive));
+    }
+
+    private V put(final K key, final V value, final long entryTimeToLiveMillis) {
+        long now = TimeMachine.epochMilliOfNow();
+        long deadline = deadlineOf(now, entryTimeToLiveMillis);
+        Outcome outcome = new Outcome();
+        map.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now)) {
+                outcome.previous = existing.value;
+                if (deadline >= existing.deadline) {
+                    // Overwritten in place, and its timeout is rescheduled lazily, when it fires
+                    existing.value = value;
+                    existing.timeToLiveMillis = entryTimeToLiveMillis;
+                    existing.deadline = deadline;
+                    return existing;
+                }
+            }
+            return outcome.create(existing, k, value, entryTimeToLiveMillis, deadline);
+        });
+        admit(outcome.created);
+        return outcome.previous;
+    }
+
+    /**
+     * Returns the value of a key, or computes and puts it with the default time to live, if it's missing or expired.
+     * The computation is atomic just like {@link ConcurrentHashMap#computeIfAbsent(Object, Function)}.
+     *
+     * @param key             The key
+     * @param mappingFunction The function computing the value, which may return null to leave the key missing
+     * @return The current or the computed value
+     */
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long now = TimeMachine.epochMilliOfNow();
+        Outcome outcome = new Outcome();
+        Entry entry = map.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+            V computed = mappingFunction.apply(k);
+            if (computed == null) {
+                if (existing != null) {
+                    existing.cancelTimeout();
+                }
+                return null;
+            }
+            return outcome.create(existing, k, computed, timeToLiveMillis, deadlineOf(now, timeToLiveMillis));
+        });
+        if (entry == null) {
+            return null;
+        }
+        if (entry == outcome.created) {
+            admit(entry);
+        } else {
+            touch(entry, now);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Removes a key
+     *
+     * @param key The key
+     * @return The removed value, or null if the key was missing or expired
+     */
+    public V remove(final K key) {
+        Entry entry = map.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.cancelTimeout();
+        return entry.isExpired(TimeMachine.epochMilliOfNow()) ? null : entry.value;
+    }
+
+    /**
+     * Returns the number of entries, which may include expired ones not removed yet, e.g., when time has flown since the
+     * latest write. Call {@link #cleanUp()} before it for an exact number.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Removes the expired entries and the entries beyond the maximum size.
+     */
+    public void cleanUp() {
+        wheel.expireDue();
+        // Every node is visited at most twice, as a second chance is given only once per visit
+        evict(2 * queuedNodes.get());
+    }
+
+    /**
+     * Stops purging the entries at travels. The map stays usable, but expired entries are only removed by writes.
+     */
+    @Override
+    public void close() {
+        TimeMachine.removeTravelListener(travelListener);
+    }
+
+    private void admit(final Entry created) {
+        if (created != null) {
+            created.timeout = wheel.schedule(created, created.deadline - TimeMachine.epochMilliOfNow(), TimeUnit.MILLISECONDS);
+            evictionQueue.offer(created);
+            queuedNodes.incrementAndGet();
+        }
+        wheel.expireDue();
+        // Every write evicts for itself, so concurrent writers can't outgrow a single evicting thread
+        evict(WRITE_EVICTION_BUDGET);
+    }
+
+    private boolean hasStaleNodes() {
+        return queuedNodes.get() > 2 * map.size() + MIN_STALE_NODES;
+    }
+
+    private void evict(final int maxVisitedNodes) {
+        for (int budget = maxVisitedNodes; budget > 0 && (map.size() > maximumSize || hasStaleNodes()); budget--) {
+            Entry entry = evictionQueue.poll();
+            if (entry == null) {
+                return;
+            }
+            queuedNodes.decrementAndGet();
+            if (map.get(entry.key) != entry) {
+                // Removed, replaced or expired since it was queued
+                continue;
+            }
+            if (map.size() > maximumSize && !entry.referenced) {
+                retire(entry);
+                continue;
+            }
+            if (map.size() > maximumSize) {
+                entry.referenced = false;
+            }
+            evictionQueue.offer(entry);
+            queuedNodes.incrementAndGet();
+        }
+    }
+
+    private void retire(final Entry entry) {
+        if (map.remove(entry.key, entry)) {
+            entry.cancelTimeout();
+        }
+    }
+
+    private void retireIfExpired(final Entry entry, final long now) {
+        // Checked again atomically, as the entry may have been overwritten in place since
+        map.computeIfPresent(entry.key, (k, existing) -> {
+            if (existing == entry && entry.isExpired(now)) {
+                entry.cancelTimeout();
+                return null;
+            }
+            return existing;
+        });
+    }
+
+    private static long deadlineOf(final long now, final long timeToLiveMillis) {
+        return timeToLiveMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeToLiveMillis;
+    }
+
+    /**
+     * Whether the time to live of an entry starts at writing it, or at reading it the latest time
+     */
+    public enum Expiry {
+        AFTER_WRITE,
+        AFTER_ACCESS
+    }
+
+    /**
+     * An entry of the map, which is also the task of its timeout in the timing wheel.
+     */
+    private final class Entry implements Runnable {
+
+        private final K key;
+        private volatile V value;
+        private volatile long timeToLiveMillis;
+        private volatile long deadline;
+        private volatile boolean referenced;
+        private volatile HierarchicalTimingWheel.Timeout timeout;
+
+        private Entry(K key, V value, long timeToLiveMillis, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.timeToLiveMillis = timeToLiveMillis;
+            this.deadline = deadline;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= deadline;
+        }
+
+        private void cancelTimeout() {
+            HierarchicalTimingWheel.Timeout scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (map.get(key) != this) {
+                return;
+            }
+            long now = TimeMachine.epochMilliOfNow();
+            long remaining = deadline - now;
+            if (remaining > 0) {
+                // Renewed by reads or overwritten since it was scheduled
+                timeout = wheel.schedule(this, remaining, TimeUnit.MILLISECONDS);
+            } else {
+                retireIfExpired(this, now);
+            }
+        }
+    }
+
+    /**
+     * The outcome of writing an entry within {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}.
+     */
+    private final class Outcome {
+
+        private V previous;
+        private Entry created;
+
+        private Entry create(final Entry replaced, final K key, final V value, final long timeToLiveMillis, final long deadline) {
+            if (replaced != null) {
+                replaced.cancelTimeout();
+            }
+            created = new Entry(key, value, timeToLiveMillis, deadline);
+            return created;
+        }
+    }
+
+    /**
+     * Purges the expired entries after travels. It references the map weakly, so an unclosed map can still be garbage
+     * collected, and the purger unregisters itself then.
+     */
+    private static final class Purger implements Runnable {
+
+        private final WeakReference<ExpiringMap<?, ?>> map;
+
+        private Purger(ExpiringMap<?, ?> map) {
+            this.map = new WeakReference<>(map);
+        }
+
+        @Override
+        public void run() {
+            ExpiringMap<?, ?> expiringMap = map.get();
+            if (expiringMap == null) {
+                TimeMachine.removeTravelListener(this);
+            } else {
+                expiringMap.cleanUp();
+            }
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package com.szityu.oss.timemachine.concurrent;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A hashed hierarchical timing wheel for tracking a large number of timeouts, e.g., request deadlines and session
+ * expiries, whose ticks are measured by the epoch time of {@link TimeMachine}, so expiry can be tested by traveling.</p>
+ * <p>Scheduling and cancelling are O(1) and lock-free: they only push the timeout to a stack, which is drained by the
+ * single expiring thread. Level 0 has {@code wheelSize} buckets of one tick, and every further level has buckets as
+ * long as a whole rotation of the level below it. Timeouts farther than every level wait in an overflow list. Buckets
+ * of higher levels are cascaded down when their time comes, and the due timeouts expire as a batch in the order of
+ * their deadlines. Timeouts never expire early, but may expire up to a tick late.</p>
+ * <p>The timeouts expire when {@link #expireDue()} is called, which is done every tick and after every travel by the
+ * worker thread started by {@link #start()}. Tests with frozen time may rather call {@link #expireDue()} after moving
+ * time, to expire the timeouts deterministically on the test thread.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public class HierarchicalTimingWheel implements AutoCloseable {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+    private static final AtomicInteger WHEEL_NUMBER = new AtomicInteger();
+    /**
+     * Producers help to transfer the timeouts every time a stack grows this much deeper.
+     */
+    private static final int ASSIST_DEPTH = 4096;
+    /**
+     * Producers wait for the expiring thread, when it falls this much behind, e.g., when it's starved of CPU.
+     */
+    static final int MAX_BACKLOG = 16 * ASSIST_DEPTH;
+
+    private final long tickNanos;
+    private final int wheelSize;
+    private final int wheelBits;
+    private final int levels;
+    private final Executor executor;
+    private final Bucket[][] buckets;
+    private final Bucket overflow = new Bucket();
+    private final AtomicReference<Timeout> scheduled = new AtomicReference<>();
+    private final AtomicReference<Timeout> cancelled = new AtomicReference<>();
+    /**
+     * The thread expiring the timeouts at the moment, or null.
+     */
+    private final AtomicReference<Thread> expiring = new AtomicReference<>();
+    private final LongAdder pending = new LongAdder();
+    private final Runnable travelListener = this::wakeUp;
+
+    // Owned by the expiring thread
+    private final List<Timeout> batch = new ArrayList<>();
+    private long currentTick;
+    private long size;
+
+    private volatile Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Creates a timing wheel, which runs the tasks of the expired timeouts on the expiring thread.
+     *
+     * @param tick      The length of a tick, the resolution of the wheel
+     * @param wheelSize The number of buckets of every level, must be a power of two
+     * @param levels    The number of levels
+     */
+    public HierarchicalTimingWheel(final Duration tick, final int wheelSize, final int levels) {
+        this(tick, wheelSize, levels, Runnable::run);
+    }
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tick      The length of a tick, the resolution of the wheel
+     * @param wheelSize The number of buckets of every level, must be a power of two
+     * @param levels    The number of levels
+     * @param executor  The executor running the tasks of the expired timeouts
+     */
+    public HierarchicalTimingWheel(final Duration tick, final int wheelSize, final int levels, final Executor executor) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        int bits = Integer.numberOfTrailingZeros(wheelSize);
+        if (levels < 1 || (long) bits * levels > 62) {
+            throw new IllegalArgumentException("Number of levels must be between 1 and " + 62 / bits + ": " + levels);
+        }
+        this.tickNanos = tick.toNanos();
+        this.wheelSize = wheelSize;
+        this.wheelBits = bits;
+        this.levels = levels;
+        this.executor = executor;
+        this.buckets = new Bucket[levels][wheelSize];
+        for (Bucket[] level : buckets) {
+            for (int i = 0; i < wheelSize; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.currentTick = Math.floorDiv(TimeMachine.epochNanoOfNow(), tickNanos);
+    }
+
+    /**
+     * Schedules a timeout, which expires after the given delay.
+     *
+     * @param task  The task to run when the timeout expires
+     * @param delay The delay from the time of now
+     * @param unit  The unit of the delay
+     * @return The timeout, which can be cancelled
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        long now = TimeMachine.epochNanoOfNow();
+        long delayNanos = Math.max(unit.toNanos(delay), 0);
+        return enqueue(new Timeout(task, delayNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + delayNanos));
+    }
+
+    /**
+     * Schedules a timeout, which expires at the given instant.
+     *
+     * @param task     The task to run when the timeout expires
+     * @param deadline The instant of expiry
+     * @return The timeout, which can be cancelled
+     */
+    public Timeout scheduleAt(final Runnable task, final Instant deadline) {
+        return schedule(task, Duration.between(TimeMachine.instantOfNow(), deadline).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of timeouts, which have been neither expired nor cancelled.
+     *
+     * @return The number of pending timeouts
+     */
+    public long pendingTimeouts() {
+        return pending.sum();
+    }
+
+    private Timeout enqueue(final Timeout timeout) {
+        if (closed) {
+            throw new RejectedExecutionException("Timing wheel has been closed");
+        }
+        pending.increment();
+        Timeout head;
+        do {
+            head = scheduled.get();
+            timeout.nextScheduled = head;
+            timeout.scheduledDepth = head == null ? 1 : head.scheduledDepth + 1;
+        } while (!scheduled.compareAndSet(head, timeout));
+        if (timeout.scheduledDepth % ASSIST_DEPTH == 0) {
+            assistTransfer();
+        }
+        return timeout;
+    }
+
+    private void assistTransfer() {
+        Thread current = Thread.currentThread();
+        if (expiring.compareAndSet(null, current)) {
+            try {
+                // After traveling back the wheel has to be rebuilt first, which is left to expireDue
+                if (Math.floorDiv(TimeMachine.epochNanoOfNow(), tickNanos) >= currentTick) {
+                    transferCancelled();
+                    transferScheduled();
+                }
+            } finally {
+                expiring.set(null);
+            }
+        } else if (expiring.get() != current) {
+            // A task run by the expiring thread itself may schedule or cancel, which is drained by the next expiry
+            while (backlog() >= MAX_BACKLOG && expiring.get() != null) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private int backlog() {
+        Timeout scheduledHead = scheduled.get();
+        Timeout cancelledHead = cancelled.get();
+        return (scheduledHead == null ? 0 : scheduledHead.scheduledDepth)
+                + (cancelledHead == null ? 0 : cancelledHead.cancelledDepth);
+    }
+
+    /**
+     * Starts a daemon worker thread, which expires the due timeouts every tick and after every travel. The worker
+     * inherits the timeline of the caller. The failures of the tasks are reported to the uncaught exception handler of
+     * the worker, which keeps expiring the later timeouts.
+     *
+     * @return This timing wheel
+     */
+    public synchronized HierarchicalTimingWheel start() {
+        if (closed) {
+            throw new IllegalStateException("Timing wheel has been closed");
+        }
+        if (worker == null) {
+            Thread thread = new Thread(this::work, "timing-wheel-" + WHEEL_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            worker = thread;
+            TimeMachine.addTravelListener(travelListener);
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Stops the worker thread. The pending timeouts never expire and no new ones can be scheduled.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        TimeMachine.removeTravelListener(travelListener);
+        wakeUp();
+    }
+
+    private void work() {
+        while (!closed) {
+            try {
+                expireDue();
+            } catch (RuntimeException e) {
+                // A failing task is reported, but must not stop the expiry of the later timeouts
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    private void wakeUp() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Advances the wheel to the time of now, and runs the tasks of the expired timeouts. If another thread is expiring
+     * the timeouts at the moment, it returns immediately.
+     *
+     * @return The number of expired timeouts
+     */
+    public int expireDue() {
+        if (!expiring.compareAndSet(null, Thread.currentThread())) {
+            return 0;
+        }
+        try {
+            long nowTick = Math.floorDiv(TimeMachine.epochNanoOfNow(), tickNanos);
+            transferCancelled();
+            long elapsedTicks = nowTick - currentTick;
+            if (elapsedTicks < 0 || elapsedTicks > Math.max(size, wheelSize)) {
+                // Jumping in time is cheaper by placing the timeouts again, than by ticking through every bucket
+                rebuild(nowTick);
+            } else {
+                while (currentTick < nowTick) {
+                    tick(++currentTick);
+                }
+            }
+            // Placed by the current tick, as time may have gone back since they were scheduled
+            transferScheduled();
+            return runBatch();
+        } finally {
+            batch.clear();
+            expiring.set(null);
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout = scheduled.getAndSet(null);
+        // The stack is in reverse order of scheduling
+        Timeout previous = null;
+        while (timeout != null) {
+            Timeout next = timeout.nextScheduled;
+            timeout.nextScheduled = previous;
+            previous = timeout;
+            timeout = next;
+        }
+        timeout = previous;
+        while (timeout != null) {
+            Timeout next = timeout.nextScheduled;
+            // Unchained, so a long pending timeout does not retain the ones scheduled after it
+            timeout.nextScheduled = null;
+            if (timeout.state == PENDING) {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void transferCancelled() {
+        Timeout timeout = cancelled.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            if (timeout.bucket != null) {
+                timeout.bucket.unlink(timeout);
+                size--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void place(final Timeout timeout) {
+        long tick = timeout.deadlineTick;
+        if (tick <= currentTick) {
+            batch.add(timeout);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            int shift = wheelBits * (level + 1);
+            if ((tick >> shift) == (currentTick >> shift)) {
+                // The lowest level, whose rotation contains the deadline
+                buckets[level][(int) (tick >> (wheelBits * level)) & (wheelSize - 1)].link(timeout);
+                size++;
+                return;
+            }
+        }
+        overflow.link(timeout);
+        size++;
+    }
+
+    private void tick(final long tick) {
+        if ((tick & ((1L << (wheelBits * levels)) - 1)) == 0) {
+            cascade(overflow);
+        }
+        for (int level = levels - 1; level > 0; level--) {
+            int shift = wheelBits * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                cascade(buckets[level][(int) (tick >> shift) & (wheelSize - 1)]);
+            }
+        }
+        cascade(buckets[0][(int) tick & (wheelSize - 1)]);
+    }
+
+    private void cascade(final Bucket bucket) {
+        Timeout timeout = bucket.detach();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            size--;
+            if (timeout.state == PENDING) {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void rebuild(final long nowTick) {
+        List<Timeout> timeouts = new ArrayList<>();
+        collect(overflow, timeouts);
+        for (Bucket[] level : buckets) {
+            for (Bucket bucket : level) {
+                collect(bucket, timeouts);
+            }
+        }
+        size = 0;
+        currentTick = nowTick;
+        for (Timeout timeout : timeouts) {
+            if (timeout.state == PENDING) {
+                place(timeout);
+            }
+        }
+    }
+
+    private static void collect(final Bucket bucket, final List<Timeout> timeouts) {
+        Timeout timeout = bucket.detach();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeouts.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private int runBatch() {
+        int expired = 0;
+        RuntimeException failure = null;
+        // Mostly sorted already, unless time has jumped
+        batch.sort(Comparator.comparingLong(timeout -> timeout.deadline));
+        for (Timeout timeout : batch) {
+            if (STATE.compareAndSet(timeout, PENDING, EXPIRED)) {
+                pending.decrement();
+                expired++;
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    // The rest of the batch expires anyway
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return expired;
+    }
+
+    /**
+     * A doubly-linked list of timeouts, owned by the expiring thread.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void link(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void unlink(final Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Empties the bucket, and returns its former head, whose timeouts are still chained by {@code next}.
+         */
+        Timeout detach() {
+            Timeout first = head;
+            for (Timeout timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    /**
+     * A timeout scheduled in the wheel.
+     */
+    public final class Timeout {
+
+        private final Runnable task;
+        private final long deadline;
+        private final long deadlineTick;
+        volatile int state;
+
+        // Published by the stacks, then owned by the expiring thread
+        private Timeout nextScheduled;
+        private Timeout nextCancelled;
+        private int scheduledDepth;
+        private int cancelledDepth;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+            // Rounded up, so the timeout never expires early
+            this.deadlineTick = -Math.floorDiv(-deadline, tickNanos);
+        }
+
+        /**
+         * Cancels the timeout, unless it has already expired.
+         *
+         * @return Whether the timeout has been cancelled by this call
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            pending.decrement();
+            Timeout head;
+            do {
+                head = cancelled.get();
+                nextCancelled = head;
+                cancelledDepth = head == null ? 1 : head.cancelledDepth + 1;
+            } while (!cancelled.compareAndSet(head, this));
+            if (cancelledDepth % ASSIST_DEPTH == 0) {
+                assistTransfer();
+            }
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Returns the deadline of the timeout in nanoseconds since the epoch.
+         *
+         * @return The deadline in epoch nanos
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Returns the remaining delay until the deadline according to the time of now.
+         *
+         * @param unit The unit of the result
+         * @return The remaining delay, negative if the deadline has passed
+         */
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(deadline - TimeMachine.epochNanoOfNow(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
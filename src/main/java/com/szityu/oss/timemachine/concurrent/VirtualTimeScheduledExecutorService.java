@@ -0,0 +1,463 @@
+package com.szityu.oss.timemachine.concurrent;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A {@link ScheduledExecutorService}, which measures delays by the time of {@link TimeMachine} instead of the system
+ * clock. When time is frozen by traveling, scheduled tasks wait until time is moved by {@link TimeMachine#advance}
+ * or {@code travelAt}, and then every task which became due runs immediately, in the order of their due times (and of
+ * their scheduling for equal due times). This way timeout, retry and expiry logic can be tested without sleeping.</p>
+ * <p>It works in one of the following modes:</p>
+ * <ul>
+ *     <li><b>Direct</b> (no worker threads): due tasks run synchronously on the thread, which schedules them or moves
+ *     time, so tests are fully deterministic. A task scheduled without delay runs before the scheduling call returns.</li>
+ *     <li><b>Workers</b>: due tasks run on the given number of daemon worker threads. With auto-advance, when all of the
+ *     workers are idle and only future tasks are pending, the workers advance {@link TimeMachine} to the next due time,
+ *     so the pending tasks run without waiting.</li>
+ * </ul>
+ * <p>It follows the timeline of the thread creating it: travels in the scopes of other threads, e.g., of parallel tests
+ * run by {@link TimeMachine#runAt}, neither run its tasks nor wake its workers.</p>
+ * <p>Like {@link java.util.concurrent.ScheduledThreadPoolExecutor}, it cancels periodic tasks on shutdown, but runs the
+ * delayed ones when they become due. A scheduler in direct mode, which is no longer referenced, is garbage collected
+ * even without shutting it down, like its pending tasks.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public class VirtualTimeScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService {
+
+    /**
+     * Idle workers check the time at least this often, as time may flow without traveling, e.g., when it isn't frozen.
+     */
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition termination = lock.newCondition();
+    private final PriorityQueue<ScheduledTask<?>> queue = new PriorityQueue<>();
+    private final Thread[] workers;
+    private final boolean autoAdvance;
+    private final Runnable travelListener = new TimeChangeListener(this);
+    private final AtomicLong sequencer = new AtomicLong();
+
+    // Guarded by lock
+    private int liveWorkers;
+    private int idleWorkers;
+    private boolean draining;
+    private boolean shutdown;
+    private boolean terminated;
+
+    /**
+     * Creates a scheduler in direct mode, which runs the due tasks on the thread, which schedules them or moves time.
+     */
+    public VirtualTimeScheduledExecutorService() {
+        this(0, false);
+    }
+
+    /**
+     * Creates a scheduler, which runs the due tasks on the given number of daemon worker threads. The workers are started
+     * by the constructor, so they inherit the timeline of the caller.
+     *
+     * @param workerThreads The number of worker threads, 0 creates a scheduler in direct mode
+     * @param autoAdvance   Whether the workers advance time to the next due task, when all of them are idle
+     */
+    public VirtualTimeScheduledExecutorService(final int workerThreads, final boolean autoAdvance) {
+        if (workerThreads < 0) {
+            throw new IllegalArgumentException("Number of worker threads must not be negative: " + workerThreads);
+        }
+        if (autoAdvance && workerThreads == 0) {
+            throw new IllegalArgumentException("Auto-advance needs worker threads");
+        }
+        this.autoAdvance = autoAdvance;
+        this.workers = new Thread[workerThreads];
+        int poolNumber = POOL_NUMBER.incrementAndGet();
+        for (int i = 0; i < workerThreads; i++) {
+            workers[i] = new Thread(this::work, "virtual-time-scheduler-" + poolNumber + "-" + i);
+            workers[i].setDaemon(true);
+        }
+        liveWorkers = workerThreads;
+        TimeMachine.addTravelListener(travelListener);
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        return delayedExecute(new ScheduledTask<Void>(command, null, dueTime(unit.toNanos(delay)), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+        return delayedExecute(new ScheduledTask<>(callable, dueTime(unit.toNanos(delay))));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period, final TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        return delayedExecute(new ScheduledTask<Void>(command, null, dueTime(unit.toNanos(initialDelay)), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay, final TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive: " + delay);
+        }
+        return delayedExecute(new ScheduledTask<Void>(command, null, dueTime(unit.toNanos(initialDelay)), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs the tasks, which are due at the time of now, on the calling thread. In direct mode it's done automatically
+     * after every time change, but it can be useful when time flows without traveling.
+     */
+    public void runDueTasks() {
+        lock.lock();
+        try {
+            if (draining) {
+                // The draining thread (maybe this one, if a task moves time) will run the newly due tasks as well
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            ScheduledTask<?> task;
+            while ((task = pollDueTask()) != null) {
+                task.run();
+            }
+        } finally {
+            lock.lock();
+            try {
+                draining = false;
+                tryTerminate();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ScheduledTask<?> pollDueTask() {
+        lock.lock();
+        try {
+            ScheduledTask<?> task = queue.peek();
+            return task != null && task.due <= TimeMachine.epochNanoOfNow() ? queue.poll() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T extends ScheduledTask<?>> T delayedExecute(final T task) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Scheduler has been shut down");
+            }
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+        if (workers.length == 0) {
+            runDueTasks();
+        }
+        return task;
+    }
+
+    private void enqueue(final ScheduledTask<?> task) {
+        queue.add(task);
+        changed.signalAll();
+    }
+
+    private static long dueTime(final long delayNanos) {
+        long now = TimeMachine.epochNanoOfNow();
+        long delay = Math.max(delayNanos, 0);
+        return delay > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + delay;
+    }
+
+    private void timeChanged() {
+        if (workers.length == 0) {
+            runDueTasks();
+        } else {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void work() {
+        lock.lock();
+        try {
+            while (true) {
+                ScheduledTask<?> task = queue.peek();
+                if (task == null && shutdown) {
+                    return;
+                }
+                long delay = task == null ? Long.MAX_VALUE : task.due - TimeMachine.epochNanoOfNow();
+                if (delay <= 0) {
+                    queue.poll();
+                    lock.unlock();
+                    try {
+                        task.run();
+                    } finally {
+                        lock.lock();
+                    }
+                } else if (task != null && autoAdvance && idleWorkers == workers.length - 1) {
+                    // Every other worker is idle, so nothing can happen but the next task. Advancing time runs the
+                    // travel listeners, which must not be called while holding the lock.
+                    lock.unlock();
+                    try {
+                        TimeMachine.advanceNanos(Math.max(task.due - TimeMachine.epochNanoOfNow(), 0));
+                    } finally {
+                        lock.lock();
+                    }
+                } else if (!awaitChange(delay)) {
+                    return;
+                }
+            }
+        } finally {
+            liveWorkers--;
+            tryTerminate();
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitChange(final long delay) {
+        idleWorkers++;
+        try {
+            changed.awaitNanos(Math.min(delay, MAX_WAIT_NANOS));
+            return true;
+        } catch (InterruptedException e) {
+            return !shutdown;
+        } finally {
+            idleWorkers--;
+        }
+    }
+
+    private void tryTerminate() {
+        if (shutdown && !terminated && liveWorkers == 0 && !draining && queue.isEmpty()) {
+            terminated = true;
+            TimeMachine.removeTravelListener(travelListener);
+            termination.signalAll();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (ScheduledTask<?> task : new ArrayList<>(queue)) {
+                if (task.isPeriodic()) {
+                    queue.remove(task);
+                    task.cancelQuietly();
+                }
+            }
+            changed.signalAll();
+            tryTerminate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        lock.lock();
+        try {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>(queue);
+            queue.clear();
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            changed.signalAll();
+            tryTerminate();
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return terminated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for termination in real time, as pending tasks may need time to be moved by another thread.
+     */
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!terminated) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = termination.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class ScheduledTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        private final long sequenceNumber;
+        /**
+         * Positive for fixed rate, negative for fixed delay and 0 for one-shot tasks
+         */
+        private final long period;
+        // Guarded by lock
+        private long due;
+
+        private ScheduledTask(Callable<V> callable, long due) {
+            super(callable);
+            this.due = due;
+            this.period = 0;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        private ScheduledTask(Runnable runnable, V result, long due, long period) {
+            super(runnable, result);
+            this.due = due;
+            this.period = period;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            long dueTime;
+            lock.lock();
+            try {
+                dueTime = due;
+            } finally {
+                lock.unlock();
+            }
+            return unit.convert(dueTime - TimeMachine.epochNanoOfNow(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            if (other instanceof ScheduledTask) {
+                ScheduledTask<?> task = (ScheduledTask<?>) other;
+                int result = Long.compare(due, task.due);
+                return result != 0 ? result : Long.compare(sequenceNumber, task.sequenceNumber);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset()) {
+                lock.lock();
+                try {
+                    if (shutdown) {
+                        cancelQuietly();
+                    } else {
+                        due = period > 0 ? due + period : dueTime(-period);
+                        enqueue(this);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                lock.lock();
+                try {
+                    queue.remove(this);
+                    tryTerminate();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return cancelled;
+        }
+
+        private void cancelQuietly() {
+            super.cancel(false);
+        }
+    }
+
+    /**
+     * Runs the due tasks or wakes the workers after travels. It references the scheduler weakly, so a scheduler, which is
+     * never shut down, can still be garbage collected, and the listener unregisters itself then.
+     */
+    private static final class TimeChangeListener implements Runnable {
+
+        private final WeakReference<VirtualTimeScheduledExecutorService> scheduler;
+
+        private TimeChangeListener(VirtualTimeScheduledExecutorService scheduler) {
+            this.scheduler = new WeakReference<>(scheduler);
+        }
+
+        @Override
+        public void run() {
+            VirtualTimeScheduledExecutorService executor = scheduler.get();
+            if (executor == null) {
+                TimeMachine.removeTravelListener(this);
+            } else {
+                executor.timeChanged();
+            }
+        }
+    }
+}
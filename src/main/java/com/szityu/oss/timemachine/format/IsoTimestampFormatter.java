@@ -0,0 +1,299 @@
+package com.szityu.oss.timemachine.format;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * <p>Formats timestamps in the ISO-8601 form of {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME} with a
+ * fixed number of fraction digits, e.g., {@code 2021-03-28T02:30:00.123+02:00}, straight into a {@code byte[]},
+ * {@code char[]} or {@link ByteBuffer} supplied by the caller, e.g., a line of an access log.</p>
+ * <p>The date, hour, minute and offset of the latest formatted minute are cached as a template, so formatting within
+ * the same minute only copies it and writes the digits of the second and the fraction, without any allocation. The
+ * template is rebuilt at the first timestamp of another minute or zone. Racing threads can only rebuild it redundantly,
+ * so a formatter can be shared, but threads formatting in different zones should rather have their own.</p>
+ * <p>The timestamps are epoch nanos, whose years (from 1677 to 2262) always have 4 digits, so the year is never signed
+ * or longer, unlike beyond 9999 or before 0 in {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME}.</p>
+ * <p>{@link IsoTimestampParser} parses the timestamps back.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class IsoTimestampFormatter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /**
+     * The length of {@code yyyy-MM-ddTHH:mm:}
+     */
+    private static final int PREFIX_LENGTH = 17;
+
+    private final int fractionDigits;
+    private final int fractionDivisor;
+
+    /**
+     * The template of the latest formatted minute, which is immutable.
+     */
+    private volatile Minute minute;
+
+    /**
+     * Creates a formatter
+     *
+     * @param fractionDigits The number of the digits of the fraction of the second between 0 and 9, e.g., 3 for millis
+     */
+    public IsoTimestampFormatter(final int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > 9) {
+            throw new IllegalArgumentException("Fraction digits must be between 0 and 9: " + fractionDigits);
+        }
+        this.fractionDigits = fractionDigits;
+        int divisor = 1;
+        for (int i = fractionDigits; i < 9; i++) {
+            divisor *= 10;
+        }
+        this.fractionDivisor = divisor;
+    }
+
+    /**
+     * Returns the maximal length of a formatted timestamp, whose offset has seconds too
+     *
+     * @return The maximal number of bytes or chars written by a call
+     */
+    public int maxLength() {
+        return PREFIX_LENGTH + 2 + fractionLength() + "+00:00:00".length();
+    }
+
+    /**
+     * Formats the time of now in the zone of now of {@link TimeMachine}
+     *
+     * @param destination The array to write
+     * @param offset      The index to start writing at
+     * @return The index after the last written byte
+     */
+    public int formatNow(final byte[] destination, final int offset) {
+        return format(TimeMachine.epochNanoOfNow(), TimeMachine.zoneOfNow(), destination, offset);
+    }
+
+    /**
+     * Formats the time of now in the zone of now of {@link TimeMachine}
+     *
+     * @param destination The array to write
+     * @param offset      The index to start writing at
+     * @return The index after the last written char
+     */
+    public int formatNow(final char[] destination, final int offset) {
+        return format(TimeMachine.epochNanoOfNow(), TimeMachine.zoneOfNow(), destination, offset);
+    }
+
+    /**
+     * Formats the time of now in the zone of now of {@link TimeMachine} at the position of the buffer, and moves its
+     * position after the timestamp
+     *
+     * @param destination The buffer to write
+     */
+    public void formatNow(final ByteBuffer destination) {
+        format(TimeMachine.epochNanoOfNow(), TimeMachine.zoneOfNow(), destination);
+    }
+
+    /**
+     * Formats a timestamp
+     *
+     * @param epochNanos  The nanoseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param zone        The zone, whose offset to format the timestamp with
+     * @param destination The array to write
+     * @param offset      The index to start writing at
+     * @return The index after the last written byte
+     */
+    public int format(final long epochNanos, final ZoneId zone, final byte[] destination, final int offset) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        return format(epochNanos, epochSecond, minuteOf(epochSecond, zone), destination, offset);
+    }
+
+    private int format(final long epochNanos, final long epochSecond, final Minute template, final byte[] destination,
+                       final int offset) {
+        System.arraycopy(template.prefix, 0, destination, offset, PREFIX_LENGTH);
+        int index = offset + PREFIX_LENGTH;
+        int second = template.secondOf(epochSecond);
+        destination[index++] = (byte) ('0' + second / 10);
+        destination[index++] = (byte) ('0' + second % 10);
+        if (fractionDigits > 0) {
+            destination[index] = '.';
+            int fraction = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND) / fractionDivisor;
+            for (int i = index + fractionDigits; i > index; i--) {
+                destination[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            index += 1 + fractionDigits;
+        }
+        System.arraycopy(template.suffix, 0, destination, index, template.suffix.length);
+        return index + template.suffix.length;
+    }
+
+    /**
+     * Formats a timestamp
+     *
+     * @param epochNanos  The nanoseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param zone        The zone, whose offset to format the timestamp with
+     * @param destination The array to write
+     * @param offset      The index to start writing at
+     * @return The index after the last written char
+     */
+    public int format(final long epochNanos, final ZoneId zone, final char[] destination, final int offset) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        Minute template = minuteOf(epochSecond, zone);
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            destination[offset + i] = (char) template.prefix[i];
+        }
+        int index = offset + PREFIX_LENGTH;
+        int second = template.secondOf(epochSecond);
+        destination[index++] = (char) ('0' + second / 10);
+        destination[index++] = (char) ('0' + second % 10);
+        if (fractionDigits > 0) {
+            destination[index] = '.';
+            int fraction = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND) / fractionDivisor;
+            for (int i = index + fractionDigits; i > index; i--) {
+                destination[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            index += 1 + fractionDigits;
+        }
+        for (byte b : template.suffix) {
+            destination[index++] = (char) b;
+        }
+        return index;
+    }
+
+    /**
+     * Formats a timestamp at the position of the buffer, and moves its position after the timestamp
+     *
+     * @param epochNanos  The nanoseconds from the epoch of 1970-01-01T00:00:00Z
+     * @param zone        The zone, whose offset to format the timestamp with
+     * @param destination The buffer to write
+     * @throws BufferOverflowException If the remaining space of the buffer is shorter than the timestamp, in which case
+     *                                 nothing is written
+     */
+    public void format(final long epochNanos, final ZoneId zone, final ByteBuffer destination) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        Minute template = minuteOf(epochSecond, zone);
+        if (destination.remaining() < PREFIX_LENGTH + 2 + fractionLength() + template.suffix.length) {
+            throw new BufferOverflowException();
+        }
+        if (destination.hasArray()) {
+            int start = destination.arrayOffset() + destination.position();
+            int end = format(epochNanos, epochSecond, template, destination.array(), start);
+            destination.position(destination.position() + end - start);
+            return;
+        }
+        destination.put(template.prefix);
+        int second = template.secondOf(epochSecond);
+        destination.put((byte) ('0' + second / 10));
+        destination.put((byte) ('0' + second % 10));
+        if (fractionDigits > 0) {
+            int index = destination.position();
+            destination.put((byte) '.');
+            int fraction = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND) / fractionDivisor;
+            for (int i = index + fractionDigits; i > index; i--) {
+                destination.put(i, (byte) ('0' + fraction % 10));
+                fraction /= 10;
+            }
+            destination.position(index + 1 + fractionDigits);
+        }
+        destination.put(template.suffix);
+    }
+
+    private int fractionLength() {
+        return fractionDigits == 0 ? 0 : 1 + fractionDigits;
+    }
+
+    private Minute minuteOf(final long epochSecond, final ZoneId zone) {
+        Minute template = minute;
+        if (template == null || epochSecond < template.validFrom || epochSecond >= template.validUntil
+                || (template.zone != zone && !template.zone.equals(zone))) {
+            template = Minute.of(epochSecond, zone);
+            minute = template;
+        }
+        return template;
+    }
+
+    /**
+     * The template of a local minute in a zone, bounded by the offset transitions of the zone.
+     */
+    private static final class Minute {
+
+        private final ZoneId zone;
+        private final long validFrom;
+        private final long validUntil;
+        private final int offsetSeconds;
+        /**
+         * The ASCII bytes of {@code yyyy-MM-ddTHH:mm:}
+         */
+        private final byte[] prefix;
+        /**
+         * The ASCII bytes of the offset, {@code Z} or e.g. {@code +02:00}
+         */
+        private final byte[] suffix;
+
+        private Minute(ZoneId zone, long validFrom, long validUntil, int offsetSeconds, byte[] prefix, byte[] suffix) {
+            this.zone = zone;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.offsetSeconds = offsetSeconds;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        private static Minute of(final long epochSecond, final ZoneId zone) {
+            ZoneRules rules = zone.getRules();
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            ZoneOffset offset = rules.getOffset(instant);
+            long localMinuteStart = Math.floorDiv(epochSecond + offset.getTotalSeconds(), 60) * 60;
+            long validFrom = localMinuteStart - offset.getTotalSeconds();
+            long validUntil = validFrom + 60;
+            if (!rules.isFixedOffset()) {
+                // The previous transition is exclusive, so look for it from the next second
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+                if (previous != null) {
+                    validFrom = Math.max(validFrom, previous.toEpochSecond());
+                }
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                if (next != null) {
+                    validUntil = Math.min(validUntil, next.toEpochSecond());
+                }
+            }
+            LocalDateTime start = LocalDateTime.ofEpochSecond(localMinuteStart, 0, ZoneOffset.UTC);
+            // Between 1677 and 2262 in the range of epoch nanos
+            byte[] prefix = new byte[PREFIX_LENGTH];
+            writeDigits(prefix, 0, start.getYear(), 4);
+            prefix[4] = '-';
+            writeDigits(prefix, 5, start.getMonthValue(), 2);
+            prefix[7] = '-';
+            writeDigits(prefix, 8, start.getDayOfMonth(), 2);
+            prefix[10] = 'T';
+            writeDigits(prefix, 11, start.getHour(), 2);
+            prefix[13] = ':';
+            writeDigits(prefix, 14, start.getMinute(), 2);
+            prefix[16] = ':';
+            String id = offset.getId();
+            byte[] suffix = new byte[id.length()];
+            for (int i = 0; i < suffix.length; i++) {
+                suffix[i] = (byte) id.charAt(i);
+            }
+            return new Minute(zone, validFrom, validUntil, offset.getTotalSeconds(), prefix, suffix);
+        }
+
+        private static void writeDigits(final byte[] destination, final int offset, int value, final int digits) {
+            for (int i = offset + digits - 1; i >= offset; i--) {
+                destination[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+
+        private int secondOf(final long epochSecond) {
+            return (int) Math.floorMod(epochSecond + offsetSeconds, 60L);
+        }
+    }
+}
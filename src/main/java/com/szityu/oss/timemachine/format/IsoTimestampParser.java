@@ -0,0 +1,269 @@
+package com.szityu.oss.timemachine.format;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+
+/**
+ * <p>Parses ISO-8601 timestamps with an offset, e.g., {@code 2021-03-28T02:30:00.123+02:00}, to epoch millis or nanos
+ * without any allocation, straight from a {@link CharSequence} or the ASCII bytes of a {@code byte[]}, e.g., a line of
+ * an access log.</p>
+ * <p>It accepts the timestamps of {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME}, which are written by
+ * {@link IsoTimestampFormatter} too: the year has 4 digits, or a sign and up to 9 digits, e.g., {@code +10000} or
+ * {@code -0001}, the seconds are optional, the fraction may have up to 9 digits, and the offset is {@code Z} or
+ * {@code +hh:mm} with optional seconds. Only a failure allocates, by throwing a {@link DateTimeParseException}.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class IsoTimestampParser {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int DAYS_0000_TO_1970 = 719_468;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+    /**
+     * The maximal number of the digits of a signed year, as {@link java.time.Year#MAX_VALUE} has 9
+     */
+    private static final int MAX_YEAR_DIGITS = 9;
+
+    private IsoTimestampParser() {
+    }
+
+    /**
+     * Parses a timestamp to epoch millis
+     *
+     * @param text The timestamp
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z, with the fraction truncated
+     * @throws DateTimeParseException if the text is not a valid timestamp, or out of the range of epoch millis
+     */
+    public static long parseEpochMillis(final CharSequence text) {
+        return parse(text, null, 0, text.length(), false);
+    }
+
+    /**
+     * Parses a timestamp to epoch millis
+     *
+     * @param source The ASCII bytes of the timestamp
+     * @param offset The index of the first byte of the timestamp
+     * @param length The length of the timestamp
+     * @return The milliseconds from the epoch of 1970-01-01T00:00:00Z, with the fraction truncated
+     * @throws DateTimeParseException if the bytes are not a valid timestamp, or out of the range of epoch millis
+     */
+    public static long parseEpochMillis(final byte[] source, final int offset, final int length) {
+        return parse(null, source, offset, length, false);
+    }
+
+    /**
+     * Parses a timestamp to epoch nanos
+     *
+     * @param text The timestamp
+     * @return The nanoseconds from the epoch of 1970-01-01T00:00:00Z
+     * @throws DateTimeParseException if the text is not a valid timestamp, or out of the range of epoch nanos
+     */
+    public static long parseEpochNanos(final CharSequence text) {
+        return parse(text, null, 0, text.length(), true);
+    }
+
+    /**
+     * Parses a timestamp to epoch nanos
+     *
+     * @param source The ASCII bytes of the timestamp
+     * @param offset The index of the first byte of the timestamp
+     * @param length The length of the timestamp
+     * @return The nanoseconds from the epoch of 1970-01-01T00:00:00Z
+     * @throws DateTimeParseException if the bytes are not a valid timestamp, or out of the range of epoch nanos
+     */
+    public static long parseEpochNanos(final byte[] source, final int offset, final int length) {
+        return parse(null, source, offset, length, true);
+    }
+
+    /**
+     * Parses either the text or the bytes, whichever is not null.
+     */
+    private static long parse(final CharSequence text, final byte[] bytes, final int offset, final int length, final boolean nanos) {
+        int end = offset + length;
+        if (length < 17) {
+            throw failure(text, bytes, offset, length, length, "Too short");
+        }
+        int yearEnd = yearEnd(text, bytes, offset, length);
+        int year = year(text, bytes, yearEnd, offset, length);
+        if (end - yearEnd < 13) {
+            throw failure(text, bytes, offset, length, length, "Too short");
+        }
+        expect(text, bytes, yearEnd, '-', offset, length);
+        int month = digits(text, bytes, yearEnd + 1, 2, offset, length);
+        expect(text, bytes, yearEnd + 3, '-', offset, length);
+        int day = digits(text, bytes, yearEnd + 4, 2, offset, length);
+        char separator = charAt(text, bytes, yearEnd + 6);
+        if (separator != 'T' && separator != 't') {
+            throw failure(text, bytes, offset, length, yearEnd + 6 - offset, "Expected 'T'");
+        }
+        int hour = digits(text, bytes, yearEnd + 7, 2, offset, length);
+        expect(text, bytes, yearEnd + 9, ':', offset, length);
+        int minute = digits(text, bytes, yearEnd + 10, 2, offset, length);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59) {
+            throw failure(text, bytes, offset, length, 0, "Invalid date or time");
+        }
+        int index = yearEnd + 12;
+        int second = 0;
+        int nano = 0;
+        if (index < end && charAt(text, bytes, index) == ':') {
+            second = digits(text, bytes, index + 1, 2, offset, length);
+            if (second > 59) {
+                throw failure(text, bytes, offset, length, index + 1 - offset, "Invalid second");
+            }
+            index += 3;
+            if (index < end && (charAt(text, bytes, index) == '.' || charAt(text, bytes, index) == ',')) {
+                int digits = 0;
+                index++;
+                while (index < end && isDigit(charAt(text, bytes, index))) {
+                    if (++digits > 9) {
+                        throw failure(text, bytes, offset, length, index - offset, "More than 9 fraction digits");
+                    }
+                    nano = nano * 10 + charAt(text, bytes, index++) - '0';
+                }
+                if (digits == 0) {
+                    throw failure(text, bytes, offset, length, index - offset, "Expected fraction digits");
+                }
+                for (int i = digits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        int offsetSeconds = offsetSeconds(text, bytes, index, offset, length);
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second - offsetSeconds;
+        try {
+            if (!nanos) {
+                return Math.addExact(Math.multiplyExact(epochSecond, 1000L), nano / 1_000_000);
+            }
+            return Math.addExact(Math.multiplyExact(epochSecond, NANOS_PER_SECOND), nano);
+        } catch (ArithmeticException e) {
+            throw failure(text, bytes, offset, length, 0, nanos ? "Out of the range of epoch nanos" : "Out of the range of epoch millis");
+        }
+    }
+
+    /**
+     * Returns the index after the year, which has 4 digits, or a sign and 4 to 9 digits, like the years of
+     * {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE}, e.g., {@code 2021}, {@code +10000} and {@code -0001}.
+     */
+    private static int yearEnd(final CharSequence text, final byte[] bytes, final int offset, final int length) {
+        char sign = charAt(text, bytes, offset);
+        if (sign != '+' && sign != '-') {
+            return offset + 4;
+        }
+        int index = offset + 1;
+        int end = offset + length;
+        while (index < end && index - offset <= MAX_YEAR_DIGITS && isDigit(charAt(text, bytes, index))) {
+            index++;
+        }
+        int digits = index - offset - 1;
+        if (digits < 4 || digits > MAX_YEAR_DIGITS || (sign == '+' && digits == 4)) {
+            throw failure(text, bytes, offset, length, 0, "Invalid year");
+        }
+        return index;
+    }
+
+    private static int year(final CharSequence text, final byte[] bytes, final int yearEnd, final int offset, final int length) {
+        char sign = charAt(text, bytes, offset);
+        if (sign != '+' && sign != '-') {
+            return digits(text, bytes, offset, 4, offset, length);
+        }
+        int year = digits(text, bytes, offset + 1, yearEnd - offset - 1, offset, length);
+        if (sign == '-' && year == 0) {
+            throw failure(text, bytes, offset, length, 0, "Invalid year");
+        }
+        return sign == '-' ? -year : year;
+    }
+
+    private static int offsetSeconds(final CharSequence text, final byte[] bytes, final int index, final int offset, final int length) {
+        int end = offset + length;
+        if (index >= end) {
+            throw failure(text, bytes, offset, length, index - offset, "Expected offset");
+        }
+        char sign = charAt(text, bytes, index);
+        if (sign == 'Z' || sign == 'z') {
+            if (index + 1 != end) {
+                throw failure(text, bytes, offset, length, index + 1 - offset, "Unexpected text after offset");
+            }
+            return 0;
+        }
+        if (sign != '+' && sign != '-') {
+            throw failure(text, bytes, offset, length, index - offset, "Expected offset");
+        }
+        int seconds;
+        int remaining = end - index;
+        if (remaining == 6 || remaining == 9) {
+            int hours = digits(text, bytes, index + 1, 2, offset, length);
+            expect(text, bytes, index + 3, ':', offset, length);
+            int minutes = digits(text, bytes, index + 4, 2, offset, length);
+            int secondsOfMinute = 0;
+            if (remaining == 9) {
+                expect(text, bytes, index + 6, ':', offset, length);
+                secondsOfMinute = digits(text, bytes, index + 7, 2, offset, length);
+            }
+            if (minutes > 59 || secondsOfMinute > 59) {
+                throw failure(text, bytes, offset, length, index - offset, "Invalid offset");
+            }
+            seconds = hours * 3600 + minutes * 60 + secondsOfMinute;
+        } else {
+            throw failure(text, bytes, offset, length, index - offset, "Invalid offset");
+        }
+        if (seconds > MAX_OFFSET_SECONDS) {
+            throw failure(text, bytes, offset, length, index - offset, "Offset out of range");
+        }
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    /**
+     * Returns the epoch day of a date of the proleptic Gregorian calendar, by counting the days of 400 year eras from
+     * the 1st of March of the year 0, so the leap day is at the end of a year.
+     */
+    static long epochDay(final int year, final int month, final int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        // 31 days in the odd months up to July, and in the even ones from August
+        return 30 + ((month + (month >> 3)) & 1);
+    }
+
+    private static int digits(final CharSequence text, final byte[] bytes, final int index, final int count, final int offset, final int length) {
+        int value = 0;
+        for (int i = index; i < index + count; i++) {
+            char c = i < offset + length ? charAt(text, bytes, i) : 0;
+            if (!isDigit(c)) {
+                throw failure(text, bytes, offset, length, i - offset, "Expected a digit");
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    private static void expect(final CharSequence text, final byte[] bytes, final int index, final char expected, final int offset, final int length) {
+        if (index >= offset + length || charAt(text, bytes, index) != expected) {
+            throw failure(text, bytes, offset, length, index - offset, "Expected '" + expected + "'");
+        }
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char charAt(final CharSequence text, final byte[] bytes, final int index) {
+        return text != null ? text.charAt(index) : (char) (bytes[index] & 0xFF);
+    }
+
+    private static DateTimeParseException failure(final CharSequence text, final byte[] bytes, final int offset, final int length,
+                                                  final int errorIndex, final String reason) {
+        CharSequence parsed = text != null ? text : new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        return new DateTimeParseException("Text '" + parsed + "' could not be parsed at index " + errorIndex + ": " + reason,
+                parsed, errorIndex);
+    }
+}
@@ -0,0 +1,42 @@
+package com.szityu.oss.timemachine.id;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packs the epoch millis of {@link TimeMachine} and a sequence number within the millisecond into a {@code long}, which
+ * is strictly increasing for every call, across all threads. It's a single compare-and-set without locking. When the
+ * sequence overflows within a millisecond, or time goes backward, it continues from the latest value, so it may run
+ * ahead of the real millisecond until time catches up.
+ *
+ * @author Szilard L. Fodor
+ */
+final class SequencedClock {
+
+    private final AtomicLong latest = new AtomicLong();
+    private final int sequenceBits;
+
+    SequencedClock(int sequenceBits) {
+        this.sequenceBits = sequenceBits;
+    }
+
+    long next() {
+        long physical = TimeMachine.epochMilliOfNow() << sequenceBits;
+        long previous;
+        long next;
+        do {
+            previous = latest.get();
+            next = Math.max(physical, previous + 1);
+        } while (!latest.compareAndSet(previous, next));
+        return next;
+    }
+
+    long millis(final long value) {
+        return value >>> sequenceBits;
+    }
+
+    long sequence(final long value) {
+        return value & ((1L << sequenceBits) - 1);
+    }
+}
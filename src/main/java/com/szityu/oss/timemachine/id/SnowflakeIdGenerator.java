@@ -0,0 +1,87 @@
+package com.szityu.oss.timemachine.id;
+
+import java.time.Instant;
+
+/**
+ * <p>Generates Snowflake style, time ordered {@code long} IDs: 41 bits of milliseconds from a custom epoch (enough for
+ * 69 years), 10 bits of node ID and 12 bits of sequence within the millisecond, with the sign bit left 0.</p>
+ * <p>The timestamp is the epoch millis of {@link com.szityu.oss.timemachine.TimeMachine}, so IDs can be tested by
+ * traveling. The IDs of a generator are strictly increasing, even when time is traveled backward, or more than 4096 IDs
+ * are generated within a millisecond: then the timestamp runs ahead until time catches up. Generating is lock-free.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class SnowflakeIdGenerator {
+
+    /**
+     * The default epoch of the timestamps, 2021-01-01T00:00:00Z
+     */
+    public static final Instant DEFAULT_EPOCH = Instant.parse("2021-01-01T00:00:00Z");
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final long MAX_TIMESTAMP = (1L << (Long.SIZE - 1 - TIMESTAMP_SHIFT)) - 1;
+
+    private final SequencedClock clock = new SequencedClock(SEQUENCE_BITS);
+    private final long epochMillis;
+    private final long node;
+
+    /**
+     * Creates a generator with the {@link #DEFAULT_EPOCH}
+     *
+     * @param nodeId The ID of the node between 0 and 1023, which must be unique in the cluster
+     */
+    public SnowflakeIdGenerator(final int nodeId) {
+        this(DEFAULT_EPOCH, nodeId);
+    }
+
+    /**
+     * Creates a generator
+     *
+     * @param epoch  The epoch of the timestamps
+     * @param nodeId The ID of the node between 0 and 1023, which must be unique in the cluster
+     */
+    public SnowflakeIdGenerator(final Instant epoch, final int nodeId) {
+        if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + ((1 << NODE_BITS) - 1) + ": " + nodeId);
+        }
+        this.epochMillis = epoch.toEpochMilli();
+        this.node = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Generates the next ID
+     *
+     * @return The next ID, greater than every previous one of this generator
+     * @throws IllegalStateException if the time is out of the range of the epoch
+     */
+    public long next() {
+        long value = clock.next();
+        long timestamp = clock.millis(value) - epochMillis;
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalStateException("Time is out of the 69 years from the epoch: " + Instant.ofEpochMilli(clock.millis(value)));
+        }
+        return timestamp << TIMESTAMP_SHIFT | node | clock.sequence(value);
+    }
+
+    /**
+     * Returns the instant of an ID generated by this generator
+     *
+     * @param id The ID
+     * @return The instant of the ID with millisecond precision
+     */
+    public Instant instantOf(final long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + epochMillis);
+    }
+
+    /**
+     * Returns the node ID of an ID
+     *
+     * @param id The ID
+     * @return The ID of the node, which generated it
+     */
+    public static int nodeIdOf(final long id) {
+        return (int) (id >>> SEQUENCE_BITS) & ((1 << NODE_BITS) - 1);
+    }
+}
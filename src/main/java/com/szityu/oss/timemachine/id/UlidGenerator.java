@@ -0,0 +1,81 @@
+package com.szityu.oss.timemachine.id;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>Generates ULIDs: 48 bits of Unix epoch millis and 80 bits of randomness, encoded as 26 characters of Crockford's
+ * base32, which sort lexicographically in the order of generation. For monotonicity, the upper 16 bits of the
+ * randomness are a counter within the millisecond, and the lower 64 bits are random.</p>
+ * <p>The timestamp is the epoch millis of {@link com.szityu.oss.timemachine.TimeMachine}, so ULIDs can be tested by
+ * traveling. The ULIDs of a generator are strictly increasing, even when time is traveled backward, or more than 65536
+ * ULIDs are generated within a millisecond: then the timestamp runs ahead until time catches up. Generating is
+ * lock-free.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class UlidGenerator {
+
+    private static final int COUNTER_BITS = 16;
+    private static final int LENGTH = 26;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final SequencedClock clock = new SequencedClock(COUNTER_BITS);
+
+    /**
+     * Generates the next ULID
+     *
+     * @return The next ULID, lexicographically greater than every previous one of this generator
+     */
+    public String next() {
+        // The upper 64 bits are the millis and the counter, just like the sequenced clock packs them
+        long high = clock.next();
+        long low = ThreadLocalRandom.current().nextLong();
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1, shift = 0; i >= 0; i--, shift += 5) {
+            chars[i] = ALPHABET[fiveBitsAt(high, low, shift)];
+        }
+        return new String(chars);
+    }
+
+    private static int fiveBitsAt(final long high, final long low, final int shift) {
+        if (shift >= Long.SIZE) {
+            return (int) (high >>> (shift - Long.SIZE)) & 31;
+        }
+        if (shift > Long.SIZE - 5) {
+            return (int) (low >>> shift | high << (Long.SIZE - shift)) & 31;
+        }
+        return (int) (low >>> shift) & 31;
+    }
+
+    /**
+     * Returns the instant of a ULID
+     *
+     * @param ulid The ULID
+     * @return The instant of the ULID with millisecond precision
+     */
+    public static Instant instantOf(final String ulid) {
+        if (ulid.length() != LENGTH || decode(ulid, 0) > 7) {
+            throw new IllegalArgumentException("Not a ULID: " + ulid);
+        }
+        long millis = 0;
+        // The first 10 characters hold the 48 bits of millis, after 2 bits of padding
+        for (int i = 0; i < 10; i++) {
+            millis = millis << 5 | decode(ulid, i);
+        }
+        for (int i = 10; i < LENGTH; i++) {
+            decode(ulid, i);
+        }
+        return Instant.ofEpochMilli(millis);
+    }
+
+    private static int decode(final String ulid, final int index) {
+        char c = Character.toUpperCase(ulid.charAt(index));
+        for (int value = 0; value < ALPHABET.length; value++) {
+            if (ALPHABET[value] == c) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Not a ULID: " + ulid);
+    }
+}
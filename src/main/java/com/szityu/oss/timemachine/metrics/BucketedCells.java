@@ -0,0 +1,140 @@
+package com.szityu.oss.timemachine.metrics;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>The cells of a ring of time buckets measured by the epoch millis of {@link TimeMachine}. Every bucket has a row
+ * of cells per stripe, and threads add to the row of their own stripe, like the cells of a
+ * {@link java.util.concurrent.atomic.LongAdder}. The rows of a stripe are adjacent, and every stripe is padded to a
+ * multiple of a cache line followed by a whole line of padding, so threads of different stripes never write the same
+ * cache line, however few and narrow the buckets are, and wherever the array starts.</p>
+ * <p>A cell packs the lower 24 bits of the index of its bucket with a 40 bit count, so it rolls over lazily: adding to a
+ * cell of an earlier bucket starts it again, and reading skips the cells, which are not of the buckets within the
+ * window. Adding to a bucket, which has rolled out of the window in the meantime, is dropped. There is neither a
+ * background thread, nor allocation.</p>
+ * <p>There are as many stripes as processors rounded up to a power of two, so the cells take about
+ * {@code 8 * width * buckets * stripes} bytes, but at least two cache lines per stripe, and a sum reads a cell of every stripe per bucket.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+final class BucketedCells {
+
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long STAMP_MASK = (1L << (Long.SIZE - COUNT_BITS)) - 1;
+    /**
+     * The number of cells in a cache line of 64 bytes
+     */
+    private static final int CELLS_PER_LINE = 8;
+
+    private final AtomicLongArray cells;
+    private final long bucketMillis;
+    private final int buckets;
+    private final int width;
+    private final int stripeLength;
+    private final int stripeMask;
+
+    /**
+     * @param window  The length of the window, which must be a multiple of the number of buckets in millis
+     * @param buckets The number of buckets of the window
+     * @param width   The number of cells of a bucket in a stripe
+     */
+    BucketedCells(final Duration window, final int buckets, final int width) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Number of buckets must be positive: " + buckets);
+        }
+        long windowMillis = window.toMillis();
+        if (windowMillis < buckets || windowMillis % buckets != 0) {
+            throw new IllegalArgumentException("Window must be a multiple of " + buckets + " milliseconds: " + window);
+        }
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripeLength = stripeLength(buckets, width);
+        this.cells = new AtomicLongArray(Math.multiplyExact(stripes, stripeLength));
+        this.bucketMillis = windowMillis / buckets;
+        this.buckets = buckets;
+        this.width = width;
+        this.stripeMask = stripes - 1;
+    }
+
+    long currentBucket() {
+        return Math.floorDiv(TimeMachine.epochMilliOfNow(), bucketMillis);
+    }
+
+    /**
+     * Returns the number of the latest buckets covering a period, at most all of them
+     */
+    int bucketsOf(final Duration period) {
+        long periodMillis = period.toMillis();
+        if (periodMillis < 1) {
+            throw new IllegalArgumentException("Period must be at least a millisecond: " + period);
+        }
+        return (int) Math.min((periodMillis + bucketMillis - 1) / bucketMillis, buckets);
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    void add(final long bucket, final int offset, final long count) {
+        int index = indexOf(stripe(), bucket, offset);
+        long stamp = (bucket & STAMP_MASK) << COUNT_BITS;
+        boolean withinWindow = false;
+        long previous;
+        long next;
+        do {
+            previous = cells.get(index);
+            if ((previous & ~COUNT_MASK) == stamp) {
+                // Saturates instead of overflowing into the stamp
+                next = stamp | Math.min((previous & COUNT_MASK) + count, COUNT_MASK);
+            } else {
+                // A writer late by a whole ring must not start again the cell of a newer bucket of the same slot. Its
+                // count is out of the window anyway, while a bucket within the window starts the cell again, even if
+                // the cell is of a later bucket, which time has traveled back from.
+                if (!withinWindow) {
+                    if (currentBucket() - bucket >= buckets) {
+                        return;
+                    }
+                    withinWindow = true;
+                }
+                next = stamp | Math.min(count, COUNT_MASK);
+            }
+        } while (!cells.compareAndSet(index, previous, next));
+    }
+
+    /**
+     * Sums a cell of the latest buckets up to the current one over every stripe
+     */
+    long sum(final long currentBucket, final int latestBuckets, final int offset) {
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            for (long bucket = currentBucket - latestBuckets + 1; bucket <= currentBucket; bucket++) {
+                long cell = cells.get(indexOf(stripe, bucket, offset));
+                if (cell >>> COUNT_BITS == (bucket & STAMP_MASK)) {
+                    sum += cell & COUNT_MASK;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of cells of a stripe: its rows rounded up to whole cache lines, and a line of padding, which
+     * separates the rows of adjacent stripes, even if the array does not start at the start of a line
+     */
+    static int stripeLength(final int buckets, final int width) {
+        int rows = Math.multiplyExact(buckets, width);
+        return Math.addExact(Math.addExact(rows, CELLS_PER_LINE - 1) & -CELLS_PER_LINE, CELLS_PER_LINE);
+    }
+
+    private int indexOf(final int stripe, final long bucket, final int offset) {
+        return stripe * stripeLength + (int) Math.floorMod(bucket, (long) buckets) * width + offset;
+    }
+
+    private int stripe() {
+        // Spreads the sequential IDs of threads over the stripes
+        return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+}
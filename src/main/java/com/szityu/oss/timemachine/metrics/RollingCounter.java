@@ -0,0 +1,68 @@
+package com.szityu.oss.timemachine.metrics;
+
+import java.time.Duration;
+
+/**
+ * <p>A counter of the events within a rolling window, e.g., the requests of the last minute, whose buckets are measured
+ * by the epoch millis of {@link com.szityu.oss.timemachine.TimeMachine}, so rolling over can be tested by traveling
+ * instead of sleeping.</p>
+ * <p>The window is a ring of buckets, e.g., 60 buckets of a second for a minute, and a sum can be read over any number
+ * of the latest buckets, e.g., over the last second or the whole minute. Recording adds to a cell of the current bucket
+ * striped by thread, without locking or allocation, and buckets roll over lazily on recording and reading, without a
+ * background thread. It takes 8 bytes per bucket and stripe, and there are as many stripes as processors rounded up to
+ * a power of two.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class RollingCounter {
+
+    private final BucketedCells cells;
+
+    /**
+     * Creates a counter
+     *
+     * @param window  The length of the window, which must be a multiple of the number of buckets in millis
+     * @param buckets The number of buckets of the window
+     */
+    public RollingCounter(final Duration window, final int buckets) {
+        this.cells = new BucketedCells(window, buckets, 1);
+    }
+
+    /**
+     * Records an event
+     */
+    public void record() {
+        cells.add(cells.currentBucket(), 0, 1);
+    }
+
+    /**
+     * Records events
+     *
+     * @param count The number of events
+     */
+    public void record(final long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+        cells.add(cells.currentBucket(), 0, count);
+    }
+
+    /**
+     * Returns the number of events within the window
+     *
+     * @return The number of events within the window, including the current bucket
+     */
+    public long sum() {
+        return cells.sum(cells.currentBucket(), cells.buckets(), 0);
+    }
+
+    /**
+     * Returns the number of events within a period, rounded up to whole buckets
+     *
+     * @param period The period before now, at most the window
+     * @return The number of events within the latest buckets covering the period, including the current bucket
+     */
+    public long sum(final Duration period) {
+        return cells.sum(cells.currentBucket(), cells.bucketsOf(period), 0);
+    }
+}
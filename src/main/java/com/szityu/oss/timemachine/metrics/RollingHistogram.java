@@ -0,0 +1,126 @@
+package com.szityu.oss.timemachine.metrics;
+
+import java.time.Duration;
+
+/**
+ * <p>A histogram of values recorded within a rolling window, e.g., the latencies of the last minute, whose buckets are
+ * measured by the epoch millis of {@link com.szityu.oss.timemachine.TimeMachine}, so rolling over can be tested by
+ * traveling instead of sleeping.</p>
+ * <p>Values are counted in bins of powers of two, so percentiles are accurate within a factor of two. Like
+ * {@link RollingCounter}, the window is a ring of buckets, recording adds to a cell striped by thread without locking or
+ * allocation, and buckets roll over lazily.</p>
+ * <p>Every bucket has 64 bins of 8 bytes per stripe, and there are as many stripes as processors rounded up to a power
+ * of two, so it takes {@code 512 * buckets * stripes} bytes, e.g., 480 KiB for 60 buckets on 16 processors. Reading a
+ * count or a percentile sums {@code 64 * buckets * stripes} cells, e.g., 61,440 for the same, so it's meant for
+ * periodic reporting rather than for every request.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class RollingHistogram {
+
+    private static final int BINS = Long.SIZE;
+
+    private final BucketedCells cells;
+
+    /**
+     * Creates a histogram
+     *
+     * @param window  The length of the window, which must be a multiple of the number of buckets in millis
+     * @param buckets The number of buckets of the window
+     */
+    public RollingHistogram(final Duration window, final int buckets) {
+        this.cells = new BucketedCells(window, buckets, BINS);
+    }
+
+    /**
+     * Records a value
+     *
+     * @param value The value, which must not be negative
+     */
+    public void record(final long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        cells.add(cells.currentBucket(), binOf(value), 1);
+    }
+
+    /**
+     * Returns the number of values recorded within the window
+     *
+     * @return The number of values within the window, including the current bucket
+     */
+    public long count() {
+        return count(cells.currentBucket(), cells.buckets());
+    }
+
+    /**
+     * Returns the number of values recorded within a period, rounded up to whole buckets
+     *
+     * @param period The period before now, at most the window
+     * @return The number of values within the latest buckets covering the period, including the current bucket
+     */
+    public long count(final Duration period) {
+        return count(cells.currentBucket(), cells.bucketsOf(period));
+    }
+
+    private long count(final long currentBucket, final int latestBuckets) {
+        long count = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            count += cells.sum(currentBucket, latestBuckets, bin);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a percentile of the values recorded within the window
+     *
+     * @param percentile The percentile between 0 and 100, e.g., 99.9
+     * @return The upper bound of the bin of the percentile, or 0 if no value has been recorded
+     */
+    public long valueAtPercentile(final double percentile) {
+        return valueAtPercentile(percentile, cells.buckets());
+    }
+
+    /**
+     * Returns a percentile of the values recorded within a period, rounded up to whole buckets
+     *
+     * @param percentile The percentile between 0 and 100, e.g., 99.9
+     * @param period     The period before now, at most the window
+     * @return The upper bound of the bin of the percentile, or 0 if no value has been recorded
+     */
+    public long valueAtPercentile(final double percentile, final Duration period) {
+        return valueAtPercentile(percentile, cells.bucketsOf(period));
+    }
+
+    private long valueAtPercentile(final double percentile, final int latestBuckets) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long currentBucket = cells.currentBucket();
+        long[] counts = new long[BINS];
+        long total = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            counts[bin] = cells.sum(currentBucket, latestBuckets, bin);
+            total += counts[bin];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+        long seen = 0;
+        int bin = 0;
+        while (seen + counts[bin] < rank) {
+            seen += counts[bin++];
+        }
+        return upperBoundOf(bin);
+    }
+
+    private static int binOf(final long value) {
+        // 0 has its own bin, and every further bin holds the values of the same highest bit
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    private static long upperBoundOf(final int bin) {
+        return bin == BINS - 1 ? Long.MAX_VALUE : (1L << bin) - 1;
+    }
+}
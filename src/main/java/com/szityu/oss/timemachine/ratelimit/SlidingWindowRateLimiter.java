@@ -0,0 +1,157 @@
+package com.szityu.oss.timemachine.ratelimit;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A sliding window rate limiter for one or many keys, e.g., tenants or API keys mapped to indexes, whose windows are
+ * measured by the epoch nanos of {@link TimeMachine}, so window rollover can be tested by traveling instead of
+ * sleeping.</p>
+ * <p>It's a sliding window counter: it counts the permits of the current fixed window, and weights the count of the
+ * previous window by its part still within the sliding window. The state of a key is a single {@code long} in an array,
+ * 8 bytes per key, packing the lower 24 bits of the index of the current window, and the two counts in 20 bits each.
+ * Acquiring is a single compare-and-set without locking or allocation. After traveling back the counts start again from
+ * zero.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class SlidingWindowRateLimiter {
+
+    /**
+     * The maximal limit of a window, which fits into the bits of a count
+     */
+    public static final long MAX_LIMIT = (1L << 20) - 1;
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = MAX_LIMIT;
+    private static final int WINDOW_SHIFT = 2 * COUNT_BITS;
+    private static final long WINDOW_MASK = (1L << 24) - 1;
+
+    private final AtomicLongArray states;
+    private final long limit;
+    private final long windowNanos;
+
+    /**
+     * Creates a limiter for a single key
+     *
+     * @param limit  The number of permits allowed within a window
+     * @param window The length of the sliding window
+     */
+    public SlidingWindowRateLimiter(final long limit, final Duration window) {
+        this(1, limit, window);
+    }
+
+    /**
+     * Creates a limiter for many keys, which have their own windows of the same limit
+     *
+     * @param keys   The number of keys
+     * @param limit  The number of permits allowed within a window
+     * @param window The length of the sliding window
+     */
+    public SlidingWindowRateLimiter(final int keys, final long limit, final Duration window) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("Number of keys must be positive: " + keys);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.states = new AtomicLongArray(keys);
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Acquires a permit of the single key
+     *
+     * @return Whether the permit was within the limit
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(0, 1);
+    }
+
+    /**
+     * Acquires a permit of a key
+     *
+     * @param key The index of the key
+     * @return Whether the permit was within the limit
+     */
+    public boolean tryAcquire(final int key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Acquires permits of a key. Either all of them are acquired, or none.
+     *
+     * @param key     The index of the key
+     * @param permits The number of permits
+     * @return Whether the permits were within the limit
+     */
+    public boolean tryAcquire(final int key, final int permits) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Number of permits must not be negative: " + permits);
+        }
+        long now = TimeMachine.epochNanoOfNow();
+        long window = Math.floorDiv(now, windowNanos);
+        double previousWeight = 1 - (double) Math.floorMod(now, windowNanos) / windowNanos;
+        long previous;
+        long next;
+        do {
+            previous = states.get(key);
+            long state = rollOver(previous, window);
+            long current = state & COUNT_MASK;
+            if (current + permits + (long) (previousCountOf(state) * previousWeight) > limit) {
+                return false;
+            }
+            next = state + permits;
+        } while (!states.compareAndSet(key, previous, next));
+        return true;
+    }
+
+    /**
+     * Returns the number of permits available for a key
+     *
+     * @param key The index of the key
+     * @return The number of permits, which can be acquired at the moment
+     */
+    public long availablePermits(final int key) {
+        long now = TimeMachine.epochNanoOfNow();
+        long state = rollOver(states.get(key), Math.floorDiv(now, windowNanos));
+        double previousWeight = 1 - (double) Math.floorMod(now, windowNanos) / windowNanos;
+        return Math.max(limit - (state & COUNT_MASK) - (long) (previousCountOf(state) * previousWeight), 0);
+    }
+
+    /**
+     * Returns the number of keys
+     *
+     * @return The number of keys
+     */
+    public int keys() {
+        return states.length();
+    }
+
+    /**
+     * Returns the state in the given window: the same, if it's the current window already, or the current count moved
+     * to the previous one, if it's the next window, or empty otherwise.
+     */
+    private static long rollOver(final long state, final long window) {
+        long stateWindow = state >>> WINDOW_SHIFT;
+        long currentWindow = window & WINDOW_MASK;
+        if (stateWindow == currentWindow) {
+            return state;
+        }
+        long packedWindow = currentWindow << WINDOW_SHIFT;
+        if (stateWindow == ((window - 1) & WINDOW_MASK)) {
+            return packedWindow | (state & COUNT_MASK) << COUNT_BITS;
+        }
+        return packedWindow;
+    }
+
+    private static long previousCountOf(final long state) {
+        return (state >>> COUNT_BITS) & COUNT_MASK;
+    }
+}
@@ -0,0 +1,133 @@
+package com.szityu.oss.timemachine.ratelimit;
+
+import com.szityu.oss.timemachine.TimeMachine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A token bucket rate limiter for one or many keys, e.g., tenants or API keys mapped to indexes, whose tokens are
+ * refilled by the epoch nanos of {@link TimeMachine}, so refilling can be tested by traveling instead of sleeping.</p>
+ * <p>The bucket of a key is a single {@code long} in an array, 8 bytes per key: the time when the bucket will be full
+ * again, as in the generic cell rate algorithm (GCRA). Acquiring a token moves it forward by the refill interval of a
+ * token, if it stays within the capacity ahead of now. It's a single compare-and-set without locking or allocation.
+ * After traveling back, the buckets ahead of their capacity are full again, instead of staying blocked until time catches
+ * up.</p>
+ *
+ * @author Szilard L. Fodor
+ */
+public final class TokenBucketRateLimiter {
+
+    private final AtomicLongArray fullAt;
+    private final long capacity;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * Creates a limiter for a single key
+     *
+     * @param capacity The maximum number of tokens in the bucket, the largest burst allowed
+     * @param tokens   The number of tokens refilled in every period
+     * @param period   The period of refilling the tokens
+     */
+    public TokenBucketRateLimiter(final long capacity, final long tokens, final Duration period) {
+        this(1, capacity, tokens, period);
+    }
+
+    /**
+     * Creates a limiter for many keys, which have their own buckets of the same capacity and refill rate
+     *
+     * @param keys     The number of keys
+     * @param capacity The maximum number of tokens in a bucket, the largest burst allowed
+     * @param tokens   The number of tokens refilled in every period
+     * @param period   The period of refilling the tokens
+     */
+    public TokenBucketRateLimiter(final int keys, final long capacity, final long tokens, final Duration period) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("Number of keys must be positive: " + keys);
+        }
+        if (capacity < 1 || tokens < 1) {
+            throw new IllegalArgumentException("Capacity and tokens must be positive: " + capacity + ", " + tokens);
+        }
+        long periodNanos = period.toNanos();
+        if (periodNanos < tokens) {
+            throw new IllegalArgumentException("Refilling is faster than a token per nanosecond: " + tokens + " per " + period);
+        }
+        this.fullAt = new AtomicLongArray(keys);
+        this.capacity = capacity;
+        this.intervalNanos = periodNanos / tokens;
+        this.toleranceNanos = Math.multiplyExact(capacity, intervalNanos);
+    }
+
+    /**
+     * Acquires a token of the single key
+     *
+     * @return Whether a token was available
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(0, 1);
+    }
+
+    /**
+     * Acquires a token of a key
+     *
+     * @param key The index of the key
+     * @return Whether a token was available
+     */
+    public boolean tryAcquire(final int key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Acquires tokens of a key. Either all of them are acquired, or none.
+     *
+     * @param key    The index of the key
+     * @param tokens The number of tokens
+     * @return Whether the tokens were available
+     */
+    public boolean tryAcquire(final int key, final int tokens) {
+        if (tokens < 0) {
+            throw new IllegalArgumentException("Number of tokens must not be negative: " + tokens);
+        }
+        if (tokens > capacity) {
+            return false;
+        }
+        long now = TimeMachine.epochNanoOfNow();
+        long cost = tokens * intervalNanos;
+        long previous;
+        long next;
+        do {
+            previous = fullAt.get(key);
+            next = fullAtOf(previous, now) + cost;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+        } while (!fullAt.compareAndSet(key, previous, next));
+        return true;
+    }
+
+    /**
+     * Returns the number of tokens available for a key
+     *
+     * @param key The index of the key
+     * @return The number of tokens, which can be acquired at the moment
+     */
+    public long availableTokens(final int key) {
+        long now = TimeMachine.epochNanoOfNow();
+        return (now + toleranceNanos - fullAtOf(fullAt.get(key), now)) / intervalNanos;
+    }
+
+    /**
+     * Returns the number of keys
+     *
+     * @return The number of keys
+     */
+    public int keys() {
+        return fullAt.length();
+    }
+
+    private long fullAtOf(final long previous, final long now) {
+        // A bucket is full since then in the past, and it's more than empty only if time has gone back
+        return previous > now + toleranceNanos ? now : Math.max(previous, now);
+    }
+}
@@ -0,0 +1,128 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EpochCalendarTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Budapest", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata", "UTC", "-03:30"})
+    void convert_sameAsZonedDateTime(String zoneId) {
+        // GIVEN
+        ZoneId zone = ZoneId.of(zoneId);
+        EpochCalendar calendar = EpochCalendar.of(zone, GOAL_INSTANT);
+        SplittableRandom random = new SplittableRandom(42);
+        long[] epochMillis = new long[20_000];
+        for (int i = 0; i < epochMillis.length; i++) {
+            // Mostly around the transition, but some of them decades away, and before the epoch
+            long range = i % 10 == 0 ? 200 * 366 * 86_400_000L : 3 * 86_400_000L;
+            epochMillis[i] = GOAL_INSTANT.toEpochMilli() + random.nextLong(-range, range);
+        }
+        int[] epochDays = new int[epochMillis.length];
+        int[] hours = new int[epochMillis.length];
+        int[] daysOfWeek = new int[epochMillis.length];
+
+        // WHEN
+        calendar.convert(epochMillis, epochDays, hours, daysOfWeek);
+
+        // THEN
+        for (int i = 0; i < epochMillis.length; i++) {
+            ZonedDateTime expected = Instant.ofEpochMilli(epochMillis[i]).atZone(zone);
+            assertThat(new int[]{epochDays[i], hours[i], daysOfWeek[i]})
+                    .describedAs("Fields of %s", expected)
+                    .containsExactly((int) expected.toLocalDate().toEpochDay(), expected.getHour(), expected.getDayOfWeek().getValue());
+        }
+    }
+
+    @Test
+    void convert_onlyTheRangeAndTheRequestedOutputs() {
+        // GIVEN
+        EpochCalendar calendar = EpochCalendar.of(ZoneId.of("Europe/Budapest"), GOAL_INSTANT);
+        long[] epochMillis = {0, GOAL_INSTANT.toEpochMilli(), GOAL_INSTANT.plusSeconds(3600).toEpochMilli(), 0};
+        int[] hours = {-1, -1, -1, -1};
+
+        // WHEN
+        calendar.convert(epochMillis, 1, 3, null, hours, null);
+
+        // THEN
+        assertThat(hours).containsExactly(-1, 1, 3, -1);
+        assertThatThrownBy(() -> calendar.convert(epochMillis, null, new int[3], null))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void convert_readsBuffers() {
+        // GIVEN
+        EpochCalendar calendar = EpochCalendar.of(ZoneId.of("America/New_York"), GOAL_INSTANT);
+        LongBuffer heap = LongBuffer.wrap(new long[]{0, GOAL_INSTANT.toEpochMilli(), -1});
+        heap.position(1);
+        LongBuffer direct = ByteBuffer.allocateDirect(2 * Long.BYTES).asLongBuffer();
+        direct.put(GOAL_INSTANT.toEpochMilli()).put(-1).flip();
+        int[] heapDays = new int[2];
+        int[] directDays = new int[2];
+
+        // WHEN
+        calendar.convert(heap, heapDays, null, null);
+        calendar.convert(direct, directDays, null, null);
+
+        // THEN
+        assertThat(heapDays).containsExactly(18713, -1);
+        assertThat(directDays).containsExactly(18713, -1);
+        assertThat(heap.hasRemaining()).isFalse();
+        assertThat(direct.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void convertParallel_sameAsConvert() {
+        // GIVEN
+        EpochCalendar calendar = EpochCalendar.of(ZoneId.of("Europe/Budapest"), GOAL_INSTANT);
+        long[] epochMillis = new long[5 * EpochCalendar.PARALLEL_THRESHOLD + 7];
+        for (int i = 0; i < epochMillis.length; i++) {
+            epochMillis[i] = GOAL_INSTANT.toEpochMilli() - 86_400_000L + i * 17_111L;
+        }
+        int[] expected = new int[epochMillis.length];
+        int[] hours = new int[epochMillis.length];
+        calendar.convert(epochMillis, null, expected, null);
+
+        // WHEN
+        calendar.convertParallel(epochMillis, null, hours, null);
+
+        // THEN
+        assertThat(hours).isEqualTo(expected);
+    }
+
+    @Test
+    void ofNow_usesTheTraveledZone() {
+        // GIVEN
+        ZoneId zone = ZoneId.of("Asia/Tokyo");
+        TimeMachine.travelAt(GOAL_INSTANT.atZone(zone));
+
+        // WHEN
+        EpochCalendar calendar = EpochCalendar.ofNow();
+        int[] hours = new int[1];
+        calendar.convert(new long[]{TimeMachine.epochMilliOfNow()}, null, hours, null);
+
+        // THEN
+        assertThat(calendar.getZone()).isEqualTo(zone);
+        assertThat(hours).containsExactly(9);
+    }
+}
@@ -0,0 +1,111 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HybridLogicalClockTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void now_followsThePhysicalTime() {
+        // GIVEN
+        HybridLogicalClock clock = new HybridLogicalClock();
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        long first = clock.now();
+        long second = clock.now();
+        TimeMachine.advance(Duration.ofMillis(1));
+        long third = clock.now();
+
+        // THEN
+        assertThat(HybridLogicalClock.toInstant(first)).isEqualTo(GOAL_INSTANT);
+        assertThat(HybridLogicalClock.logical(first)).isEqualTo(0);
+        assertThat(second).isEqualTo(HybridLogicalClock.timestamp(GOAL_INSTANT.toEpochMilli(), 1));
+        assertThat(third).isEqualTo(HybridLogicalClock.timestamp(GOAL_INSTANT.toEpochMilli() + 1, 0));
+    }
+
+    @Test
+    void now_isMonotonicWhenTimeJumpsBack() {
+        // GIVEN
+        HybridLogicalClock clock = new HybridLogicalClock();
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long beforeJump = clock.now();
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minusSeconds(10));
+        long afterJump = clock.now();
+
+        // THEN
+        assertThat(afterJump).isGreaterThan(beforeJump);
+        assertThat(HybridLogicalClock.toInstant(afterJump)).isEqualTo(GOAL_INSTANT);
+    }
+
+    @Test
+    void now_movesToTheNextMillisecondWhenTheCounterOverflows() {
+        // GIVEN
+        HybridLogicalClock clock = new HybridLogicalClock();
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        long last = 0;
+        for (int i = 0; i <= 1 << HybridLogicalClock.LOGICAL_BITS; i++) {
+            last = clock.now();
+        }
+
+        // THEN
+        assertThat(last).isEqualTo(HybridLogicalClock.timestamp(GOAL_INSTANT.toEpochMilli() + 1, 0));
+    }
+
+    @Test
+    void update_ordersEventsOfSkewedNodesByCausality() throws Exception {
+        // GIVEN node A is 5 seconds ahead of node B
+        HybridLogicalClock nodeA = new HybridLogicalClock();
+        HybridLogicalClock nodeB = new HybridLogicalClock();
+        BlockingQueue<Long> network = new LinkedBlockingQueue<>();
+
+        // WHEN A sends a message to B, which replies
+        long sent = TimeMachine.callAt(GOAL_INSTANT.plusSeconds(5), () -> {
+            long timestamp = nodeA.now();
+            network.add(timestamp);
+            return timestamp;
+        });
+        long[] atB = TimeMachine.callAt(GOAL_INSTANT, () -> {
+            long received = nodeB.update(network.take());
+            return new long[]{received, nodeB.now()};
+        });
+        long receivedByA = TimeMachine.callAt(GOAL_INSTANT.plusSeconds(5), () -> nodeA.update(atB[1]));
+
+        // THEN
+        assertThat(atB[0]).isGreaterThan(sent);
+        assertThat(atB[1]).isGreaterThan(atB[0]);
+        assertThat(receivedByA).isGreaterThan(atB[1]);
+        assertThat(HybridLogicalClock.toInstant(atB[1])).isEqualTo(GOAL_INSTANT.plusSeconds(5));
+    }
+
+    @Test
+    void update_rejectsTimestampsTooFarAhead() {
+        // GIVEN
+        HybridLogicalClock clock = new HybridLogicalClock(Duration.ofSeconds(1));
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long remote = HybridLogicalClock.timestamp(GOAL_INSTANT.plusSeconds(2).toEpochMilli(), 0);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> clock.update(remote)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(clock.latest()).isEqualTo(0);
+    }
+}
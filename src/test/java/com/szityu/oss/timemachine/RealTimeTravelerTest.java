@@ -0,0 +1,66 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealTimeTravelerTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Budapest", "America/New_York", "Australia/Lord_Howe", "UTC", "+05:30"})
+    void localTimesAcrossMidnightsAndTransitions(String zoneId) {
+        // GIVEN
+        ZoneId zone = ZoneId.of(zoneId);
+        SteppingClock clock = new SteppingClock(Instant.parse("2021-03-12T00:00:00.123456789Z"), zone);
+        RealTimeTraveler timeTraveler = new RealTimeTraveler(clock);
+
+        // WHEN
+        for (int i = 0; i < 24 * 4 * 25; i++) {
+            clock.instant = clock.instant.plusSeconds(15 * 60 - 1);
+
+            // THEN
+            assertThat(timeTraveler.localDateOfNow()).isEqualTo(LocalDate.now(clock));
+            assertThat(timeTraveler.localDateTimeOfNow()).isEqualTo(LocalDateTime.now(clock));
+            assertThat(timeTraveler.localTimeOfNow()).isEqualTo(LocalTime.now(clock));
+            assertThat(timeTraveler.offsetDateTimeOfNow()).isEqualTo(OffsetDateTime.now(clock));
+            assertThat(timeTraveler.offsetTimeOfNow()).isEqualTo(OffsetTime.now(clock));
+            assertThat(timeTraveler.epochDayOfNow()).isEqualTo(LocalDate.now(clock).toEpochDay());
+        }
+    }
+
+    private static final class SteppingClock extends Clock {
+
+        private final ZoneId zone;
+        private Instant instant;
+
+        private SteppingClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new SteppingClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordingClockTest {
+
+    @Test
+    void stop_releasesTheRecordingFromThePoolThreadsRecordingIntoIt(@TempDir Path directory) throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // GIVEN
+            WeakReference<Object> recording = recordOnPool(pool, directory.resolve("time.rec"));
+
+            // WHEN
+            for (int attempt = 0; attempt < 100 && recording.get() != null; attempt++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            // THEN the thread of the pool is still alive
+            assertThat(recording.get()).isNull();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static WeakReference<Object> recordOnPool(final ExecutorService pool, final Path path) throws Exception {
+        RecordingClock clock = RecordingClock.start(path, ZoneOffset.UTC);
+        pool.submit(clock::millis).get();
+        clock.stop();
+        Field recording = RecordingClock.class.getDeclaredField("recording");
+        recording.setAccessible(true);
+        return new WeakReference<>(recording.get(clock));
+    }
+}
@@ -0,0 +1,136 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SharedTimeControllerTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.useSystemClock();
+        TimeMachine.reset();
+    }
+
+    @Test
+    void travelAt_isSeenByTheFollowers(@TempDir Path directory) {
+        // GIVEN
+        Path path = directory.resolve("time.clock");
+        TimeMachine.useSharedClock(path);
+        // A separate mapping of the file, like in another process
+        SharedTimeController controller = SharedTimeController.open(path);
+        ZoneId budapest = ZoneId.of("Europe/Budapest");
+
+        // WHEN
+        controller.travelAt(GOAL_INSTANT.atZone(budapest));
+        Instant traveled = TimeMachine.instantOfNow();
+        ZoneId traveledZone = TimeMachine.zoneOfNow();
+        controller.travelAt(ZoneId.of("Asia/Tokyo"));
+        int rezonedHour = TimeMachine.localTimeOfNow().getHour();
+        controller.travelAt(GOAL_INSTANT.plusSeconds(60));
+        long frozenMillis = TimeMachine.epochMilliOfNow();
+
+        // THEN
+        assertThat(traveled).isEqualTo(GOAL_INSTANT);
+        assertThat(traveledZone).isEqualTo(budapest);
+        assertThat(rezonedHour).isEqualTo(9);
+        assertThat(frozenMillis).isEqualTo(GOAL_INSTANT.plusSeconds(60).toEpochMilli());
+        assertThat(TimeMachine.zoneOfNow()).isEqualTo(ZoneId.of("Asia/Tokyo"));
+    }
+
+    @Test
+    void travelAt_flowsFromTheTraveledTime(@TempDir Path directory) throws InterruptedException {
+        // GIVEN
+        Path path = directory.resolve("time.clock");
+        SharedTimeController controller = SharedTimeController.open(path);
+        controller.travelAt(GOAL_INSTANT, TimeFlow.speed(3600));
+
+        // WHEN
+        Thread.sleep(10);
+        TimeMachine.useSharedClock(path);
+        Instant first = TimeMachine.instantOfNow();
+        Thread.sleep(10);
+
+        // THEN
+        assertThat(first).isAfter(GOAL_INSTANT.plusSeconds(30));
+        assertThat(TimeMachine.instantOfNow()).isAfter(first.plusSeconds(30));
+    }
+
+    @Test
+    void reset_returnsToTheSharedTime(@TempDir Path directory) {
+        // GIVEN
+        Path path = directory.resolve("time.clock");
+        SharedTimeController controller = SharedTimeController.open(path);
+        TimeMachine.useSharedClock(path);
+        controller.travelAt(GOAL_INSTANT);
+        TimeMachine.advance(Duration.ofHours(1));
+
+        // WHEN
+        controller.travelAt(GOAL_INSTANT.plusSeconds(10));
+        Instant detached = TimeMachine.instantOfNow();
+        TimeMachine.reset();
+        Instant shared = TimeMachine.instantOfNow();
+        controller.reset();
+
+        // THEN
+        assertThat(detached).isEqualTo(GOAL_INSTANT.plusSeconds(3600));
+        assertThat(shared).isEqualTo(GOAL_INSTANT.plusSeconds(10));
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+        assertThat(TimeMachine.zoneOfNow()).isEqualTo(ZoneId.systemDefault());
+    }
+
+    @Test
+    void instantOfNow_keepsTheLatestTimeWhileTheRecordIsNeverCompleted(@TempDir Path directory) throws IOException {
+        // GIVEN
+        Path path = directory.resolve("time.clock");
+        SharedTimeController controller = SharedTimeController.open(path);
+        TimeMachine.useSharedClock(path);
+        controller.travelAt(GOAL_INSTANT);
+        TimeMachine.instantOfNow();
+
+        // WHEN the controller dies while writing the next record
+        writeSequence(path, 3);
+        Instant stuck = TimeMachine.instantOfNow();
+        controller.reset();
+
+        // THEN
+        assertThat(stuck).isEqualTo(GOAL_INSTANT);
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+    }
+
+    @Test
+    void useSharedClock_rejectsAFileWithoutAConsistentRecord(@TempDir Path directory) throws IOException {
+        // GIVEN
+        Path path = directory.resolve("time.clock");
+        Files.write(path, new byte[SharedClockFile.RECORD_SIZE]);
+        writeSequence(path, 2);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> TimeMachine.useSharedClock(path)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SharedTimeController.open(path).travelAt(ZoneId.of("Asia/Tokyo")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void writeSequence(final Path path, final long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence), 0);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StopwatchTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void nanoTime_isTheSystemNanoTimeBeforeTraveling() {
+        // GIVEN
+        long before = System.nanoTime();
+
+        // WHEN
+        long nanoTime = TimeMachine.nanoTime();
+
+        // THEN
+        assertThat(nanoTime).isBetween(before, System.nanoTime());
+    }
+
+    @Test
+    void nanoTime_isTheSystemNanoTimeAfterTravelingToAnotherZone() {
+        // GIVEN
+        TimeMachine.travelAt(ZoneId.of("Asia/Tokyo"));
+        long before = System.nanoTime();
+
+        // WHEN
+        long nanoTime = TimeMachine.nanoTime();
+
+        // THEN
+        assertThat(nanoTime).isBetween(before, System.nanoTime());
+    }
+
+    @Test
+    void nanoTime_standsStillWhileTimeIsFrozen() throws InterruptedException {
+        // GIVEN
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long start = TimeMachine.nanoTime();
+
+        // WHEN
+        Thread.sleep(20);
+
+        // THEN
+        assertThat(TimeMachine.nanoTime()).isEqualTo(start);
+    }
+
+    @Test
+    void nanoTime_movesWithTravels() {
+        // GIVEN
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long start = TimeMachine.nanoTime();
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(1500));
+        long advanced = TimeMachine.nanoTime();
+        TimeMachine.travelAt(GOAL_INSTANT.plusSeconds(60));
+
+        // THEN
+        assertThat(advanced - start).isEqualTo(1_500_000_000L);
+        assertThat(TimeMachine.nanoTime() - start).isEqualTo(60_000_000_000L);
+    }
+
+    @Test
+    void nanoTime_flowsWithTheSpeedOfTime() throws InterruptedException {
+        // GIVEN
+        TimeMachine.travelAt(GOAL_INSTANT, TimeFlow.speed(1000));
+        long start = TimeMachine.nanoTime();
+
+        // WHEN
+        Thread.sleep(20);
+
+        // THEN 20 real milliseconds are 20 seconds
+        assertThat(TimeMachine.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(20));
+    }
+
+    @Test
+    void nanoTime_isMonotonicWhileTicking() {
+        // GIVEN
+        TimeMachine.travelAt(GOAL_INSTANT, TimeFlow.ticking());
+        long previous = TimeMachine.nanoTime();
+
+        // WHEN
+        boolean monotonic = true;
+        for (int i = 0; i < 100_000; i++) {
+            long next = TimeMachine.nanoTime();
+            monotonic &= next >= previous;
+            previous = next;
+        }
+
+        // THEN
+        assertThat(monotonic).isTrue();
+    }
+
+    @Test
+    void stopwatch_measuresTraveledTime() {
+        // GIVEN
+        TimeMachine.travelAt(GOAL_INSTANT);
+        Stopwatch stopwatch = Stopwatch.start();
+        long startNanoTime = TimeMachine.nanoTime();
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(250));
+        long firstLap = stopwatch.lap();
+        TimeMachine.advance(Duration.ofSeconds(2));
+
+        // THEN
+        assertThat(firstLap).isEqualTo(250_000_000L);
+        assertThat(stopwatch.elapsed()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isEqualTo(2000);
+        assertThat(Stopwatch.elapsedNanosSince(startNanoTime)).isEqualTo(2_250_000_000L);
+    }
+}
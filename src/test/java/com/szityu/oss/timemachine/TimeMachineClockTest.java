@@ -0,0 +1,98 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.function.LongSupplier;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TimeMachineClockTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+    private static final ZoneId BUDAPEST = ZoneId.of("Europe/Budapest");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void clock_followsTravelsAndReset() {
+        // GIVEN
+        Clock clock = TimeMachine.clock();
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long traveledMillis = clock.millis();
+        Instant traveledInstant = clock.instant();
+        TimeMachine.advance(Duration.ofSeconds(1));
+        long advancedMillis = clock.millis();
+        TimeMachine.reset();
+
+        // THEN
+        assertThat(traveledMillis).isEqualTo(GOAL_INSTANT.toEpochMilli());
+        assertThat(traveledInstant).isEqualTo(GOAL_INSTANT);
+        assertThat(advancedMillis).isEqualTo(GOAL_INSTANT.plusSeconds(1).toEpochMilli());
+        assertThat(clock.instant()).isCloseTo(Instant.now(), within(1, SECONDS));
+    }
+
+    @Test
+    void clock_followsTheTraveledZone() {
+        // GIVEN
+        Clock clock = TimeMachine.clock();
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.atZone(BUDAPEST));
+
+        // THEN
+        assertThat(clock.getZone()).isEqualTo(BUDAPEST);
+        assertThat(ZonedDateTime.now(clock)).isEqualTo(GOAL_INSTANT.atZone(BUDAPEST));
+    }
+
+    @Test
+    void withZone_fixesTheZoneButFollowsTheTime() {
+        // GIVEN
+        Clock clock = TimeMachine.clock().withZone(ZoneOffset.ofHours(-10));
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.atZone(BUDAPEST));
+
+        // THEN
+        assertThat(clock.getZone()).isEqualTo(ZoneOffset.ofHours(-10));
+        assertThat(LocalDate.now(clock)).isEqualTo(LocalDate.of(2021, 3, 27));
+        assertThat(clock).isEqualTo(TimeMachine.clock().withZone(ZoneOffset.ofHours(-10)));
+        assertThat(clock).isNotEqualTo(TimeMachine.clock());
+    }
+
+    @Test
+    void withZone_rejectsNull() {
+        assertThatThrownBy(() -> TimeMachine.clock().withZone(null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> TimeMachine.clock().withZone(BUDAPEST).withZone(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void ticker_followsTravels() {
+        // GIVEN
+        LongSupplier ticker = TimeMachine.ticker();
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long start = ticker.getAsLong();
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(1500));
+
+        // THEN
+        assertThat(ticker.getAsLong() - start).isEqualTo(Duration.ofMillis(1500).toNanos());
+    }
+}
@@ -0,0 +1,207 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TimeMachineConcurrencyTest {
+
+    private static final int ROUNDS = 2_000;
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void concurrentTravels_areNotLost() throws Exception {
+        ZoneId goalZone = ZoneOffset.ofHours(5);
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // GIVEN
+            TimeMachine.travelAt(ZoneOffset.UTC);
+            TimeMachine.travelAt(Instant.EPOCH);
+
+            // WHEN
+            Thread zoneTraveler = new Thread(() -> {
+                await(barrier);
+                TimeMachine.travelAt(goalZone);
+            });
+            Thread instantTraveler = new Thread(() -> {
+                await(barrier);
+                TimeMachine.travelAt(goalInstant);
+            });
+            zoneTraveler.start();
+            instantTraveler.start();
+            zoneTraveler.join();
+            instantTraveler.join();
+
+            // THEN
+            assertThat(TimeMachine.zoneOfNow()).describedAs("Zone in round %d", round).isEqualTo(goalZone);
+            assertThat(TimeMachine.instantOfNow()).describedAs("Instant in round %d", round).isEqualTo(goalInstant);
+        }
+    }
+
+    @Test
+    void concurrentAdvances_areNotLost() throws Exception {
+        // GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        TimeMachine.travelAt(goalInstant);
+        int threadCount = 8;
+        int advances = 100_000;
+        CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            ZoneId zone = ZoneOffset.ofHours(i);
+            threads[i] = new Thread(() -> {
+                await(barrier);
+                for (int j = 0; j < advances; j++) {
+                    TimeMachine.advanceNanos(1);
+                    if (j % 1_000 == 0) {
+                        TimeMachine.travelAt(zone);
+                    }
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isEqualTo(goalInstant.plusNanos((long) threadCount * advances));
+    }
+
+    @Test
+    void travel_isVisibleToRunningReaders() throws Exception {
+        // GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        long[] seen = new long[1];
+        Thread reader = new Thread(() -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (TimeMachine.epochMilliOfNow() != goalInstant.toEpochMilli() && System.nanoTime() < deadline) {
+                seen[0]++;
+            }
+        });
+        reader.start();
+
+        // WHEN
+        Thread.sleep(100);
+        TimeMachine.travelAt(goalInstant);
+        reader.join();
+
+        // THEN
+        assertThat(TimeMachine.epochMilliOfNow()).isEqualTo(goalInstant.toEpochMilli());
+        assertThat(reader.isAlive()).isFalse();
+        assertThat(seen[0]).isPositive();
+    }
+
+    @Test
+    void preciseClock_isStrictlyMonotonicOnEveryThread() throws Exception {
+        try {
+            // GIVEN
+            TimeMachine.usePreciseClock(Duration.ofMillis(1));
+            int threadCount = 8;
+            CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            boolean[] strictlyMonotonic = new boolean[threadCount];
+            Thread[] threads = new Thread[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                int index = i;
+                threads[i] = new Thread(() -> {
+                    await(barrier);
+                    boolean monotonic = true;
+                    long previous = TimeMachine.epochNanoOfNow();
+                    for (int j = 0; j < 200_000; j++) {
+                        long next = TimeMachine.epochNanoOfNow();
+                        monotonic &= next > previous;
+                        previous = next;
+                    }
+                    strictlyMonotonic[index] = monotonic;
+                });
+            }
+
+            // WHEN
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // THEN
+            assertThat(strictlyMonotonic).containsOnly(true);
+            assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, ChronoUnit.SECONDS));
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void preciseClock_ordersTheReadsOfDifferentThreads() throws Exception {
+        try {
+            // GIVEN
+            TimeMachine.usePreciseClock(Duration.ofMillis(1));
+            int turns = 200_000;
+            AtomicInteger turn = new AtomicInteger();
+            AtomicLong handedOver = new AtomicLong(TimeMachine.epochNanoOfNow());
+            AtomicInteger outOfOrder = new AtomicInteger();
+            Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                int first = i;
+                threads[i] = new Thread(() -> {
+                    for (int own = first; own < turns; own += threads.length) {
+                        while (turn.get() != own) {
+                            Thread.yield();
+                        }
+                        // The read of the other thread happened before this one
+                        long now = TimeMachine.epochNanoOfNow();
+                        if (now <= handedOver.get()) {
+                            outOfOrder.incrementAndGet();
+                        }
+                        handedOver.set(now);
+                        turn.incrementAndGet();
+                    }
+                });
+            }
+
+            // WHEN
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // THEN
+            assertThat(outOfOrder.get()).isEqualTo(0);
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TimeMachineScopeTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void runAt_travelsOnlyInTheScope() {
+        // GIVEN
+        AtomicReference<Instant> scopedInstant = new AtomicReference<>();
+
+        // WHEN
+        TimeMachine.runAt(GOAL_INSTANT, () -> scopedInstant.set(TimeMachine.instantOfNow()));
+
+        // THEN
+        assertThat(scopedInstant.get()).isEqualTo(GOAL_INSTANT);
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+    }
+
+    @Test
+    void runAt_travelsWithinTheScopeDoNotLeak() throws Exception {
+        // GIVEN
+        TimeMachine.travelAt(ZoneOffset.ofHours(3));
+
+        // WHEN
+        Instant scopedInstant = TimeMachine.callAt(GOAL_INSTANT, () -> {
+            TimeMachine.advance(Duration.ofHours(1));
+            TimeMachine.travelAt(ZoneOffset.ofHours(5));
+            return TimeMachine.instantOfNow();
+        });
+
+        // THEN
+        assertThat(scopedInstant).isEqualTo(GOAL_INSTANT.plus(Duration.ofHours(1)));
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+        assertThat(TimeMachine.zoneOfNow()).isEqualTo(ZoneOffset.ofHours(3));
+    }
+
+    @Test
+    void runAt_isInheritedByChildThreads() throws Exception {
+        // GIVEN
+        AtomicReference<Instant> childInstant = new AtomicReference<>();
+
+        // WHEN
+        TimeMachine.callAt(GOAL_INSTANT, () -> {
+            Thread child = new Thread(() -> childInstant.set(TimeMachine.instantOfNow()));
+            child.start();
+            child.join();
+            return null;
+        });
+
+        // THEN
+        assertThat(childInstant.get()).isEqualTo(GOAL_INSTANT);
+    }
+
+    @Test
+    void withCurrentTimeline_propagatesToPools() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // GIVEN the thread of the pool is started outside of the scope
+            executor.submit(() -> null).get();
+
+            // WHEN
+            Instant scopedInstant = TimeMachine.callAt(GOAL_INSTANT,
+                    () -> executor.submit(TimeMachine.withCurrentTimeline(TimeMachine::instantOfNow)).get());
+            Future<Instant> unscopedInstant = executor.submit(TimeMachine::instantOfNow);
+
+            // THEN
+            assertThat(scopedInstant).isEqualTo(GOAL_INSTANT);
+            assertThat(unscopedInstant.get()).isCloseTo(Instant.now(), within(1, SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void runAt_parallelScopesAreIndependent() throws Exception {
+        // GIVEN
+        int threadCount = 8;
+        CountDownLatch allInScope = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            Future<?>[] results = new Future<?>[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                Instant start = GOAL_INSTANT.plus(Duration.ofDays(i));
+                results[i] = executor.submit(() -> TimeMachine.runAt(start, () -> {
+                    allInScope.countDown();
+                    await(allInScope);
+                    for (int step = 0; step < 1_000; step++) {
+                        TimeMachine.advanceNanos(1);
+                    }
+                    // THEN
+                    assertThat(TimeMachine.instantOfNow()).isEqualTo(start.plusNanos(1_000));
+                }));
+            }
+
+            // WHEN
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.szityu.oss.timemachine;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -12,6 +15,7 @@ import java.time.OffsetTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.TimeZone;
 
 import static java.time.temporal.ChronoUnit.DAYS;
 import static java.time.temporal.ChronoUnit.HOURS;
@@ -256,6 +260,354 @@ class TimeMachineTest {
         assertZoneIs(originalZone);
     }
 
+    @Test
+    void travelWith_instant_ticking() throws InterruptedException {
+        //GIVEN
+        Instant goalInstant = Instant.now().minus(Duration.ofDays(42));
+
+        // WHEN
+        TimeMachine.travelAt(goalInstant, TimeFlow.ticking());
+        Thread.sleep(100);
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isAfterOrEqualTo(goalInstant.plusMillis(100)).isBefore(goalInstant.plusSeconds(10));
+        assertZoneIs(ZoneId.systemDefault());
+    }
+
+    @Test
+    void travelWith_zonedDateTime_scaled() throws InterruptedException {
+        //GIVEN
+        ZonedDateTime goalDateTime = ZonedDateTime.of(2021, 3, 28, 1, 57, 0, 0, ZoneId.of("Europe/Budapest"));
+
+        // WHEN
+        TimeMachine.travelAt(goalDateTime, TimeFlow.speed(3600));
+        Thread.sleep(100);
+
+        // THEN 0.1 real seconds are 6 minutes, which crosses the start of summer time
+        ZonedDateTime now = TimeMachine.zonedDateTimeOfNow();
+        assertThat(now).isAfterOrEqualTo(goalDateTime.plusMinutes(6)).isBefore(goalDateTime.plusHours(6));
+        assertThat(TimeMachine.epochMilliOfNow()).isGreaterThanOrEqualTo(now.toInstant().toEpochMilli());
+        assertThat(TimeMachine.localTimeOfNow()).isAfterOrEqualTo(LocalTime.of(3, 3));
+        assertOffsetIs(ZoneOffset.ofHours(2));
+    }
+
+    @Test
+    void travelWith_zoneId_keepsFlow() throws InterruptedException {
+        //GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        TimeMachine.travelAt(goalInstant, TimeFlow.speed(60));
+
+        // WHEN
+        TimeMachine.travelAt(ZoneOffset.ofHours(5));
+        Thread.sleep(100);
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isAfterOrEqualTo(goalInstant.plusSeconds(6));
+        assertZoneIs(ZoneOffset.ofHours(5));
+    }
+
+    @Test
+    void travelWith_instant_frozenFlow() {
+        //GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+
+        // WHEN
+        TimeMachine.travelAt(goalInstant, TimeFlow.frozen());
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isEqualTo(goalInstant);
+        assertThat(TimeFlow.speed(0)).isEqualTo(TimeFlow.frozen());
+    }
+
+    @Test
+    void advance() {
+        //GIVEN
+        ZonedDateTime goalDateTime = ZonedDateTime.of(2021, 3, 28, 1, 30, 0, 0, ZoneId.of("Europe/Budapest"));
+        TimeMachine.travelAt(goalDateTime);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofHours(1));
+        TimeMachine.advanceNanos(42);
+
+        // THEN
+        ZonedDateTime expectedDateTime = goalDateTime.plusHours(1).plusNanos(42);
+        assertThat(TimeMachine.zonedDateTimeOfNow()).isEqualTo(expectedDateTime);
+        assertThat(TimeMachine.localTimeOfNow()).isEqualTo(LocalTime.of(3, 30, 0, 42));
+        assertThat(TimeMachine.epochNanoOfNow()).isEqualTo(RealTimeTraveler.toEpochNano(expectedDateTime.toInstant()));
+        assertOffsetIs(ZoneOffset.ofHours(2));
+    }
+
+    @Test
+    void advance_backward() {
+        //GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        TimeMachine.travelAt(goalInstant);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofDays(-1));
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isEqualTo(goalInstant.minus(Duration.ofDays(1)));
+    }
+
+    @Test
+    void advance_whenNotTraveled() {
+        // WHEN
+        TimeMachine.advance(Duration.ofDays(3));
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now().plus(Duration.ofDays(3)), within(1, SECONDS));
+        assertZoneIs(ZoneId.systemDefault());
+    }
+
+    @Test
+    void advance_concurrently() throws InterruptedException {
+        //GIVEN
+        Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+        TimeMachine.travelAt(goalInstant);
+        TimeMachine.advanceNanos(0);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    TimeMachine.advanceNanos(1);
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertThat(TimeMachine.instantOfNow()).isEqualTo(goalInstant.plusNanos(80_000));
+    }
+
+    @Test
+    void travelWith_instant_epochAccessorsAreExact() {
+        //GIVEN
+        Instant instant = Instant.parse("1969-12-31T23:59:59.123456789Z");
+        TimeMachine.travelAt(ZoneOffset.ofHours(1));
+
+        // WHEN
+        TimeMachine.travelAt(instant);
+
+        // THEN
+        assertThat(TimeMachine.epochMilliOfNow()).isEqualTo(instant.toEpochMilli());
+        assertThat(TimeMachine.epochSecondOfNow()).isEqualTo(instant.getEpochSecond());
+        assertThat(TimeMachine.epochNanoOfNow()).isEqualTo(-876_543_211L);
+        assertThat(TimeMachine.epochDayOfNow()).isEqualTo(0L);
+    }
+
+    @Test
+    void snapshot() {
+        // GIVEN
+        ZonedDateTime goalDateTime = ZonedDateTime.of(2021, 3, 28, 23, 59, 59, 999_999_999, ZoneId.of("Europe/Budapest"));
+        TimeMachine.travelAt(goalDateTime);
+
+        // WHEN
+        TimeSnapshot snapshot = TimeMachine.snapshot();
+
+        // THEN
+        assertThat(snapshot.toInstant()).isEqualTo(goalDateTime.toInstant());
+        assertThat(snapshot.getEpochSecond()).isEqualTo(goalDateTime.toEpochSecond());
+        assertThat(snapshot.getNano()).isEqualTo(999_999_999);
+        assertThat(snapshot.toEpochMilli()).isEqualTo(goalDateTime.toInstant().toEpochMilli());
+        assertThat(snapshot.toEpochDay()).isEqualTo(goalDateTime.toLocalDate().toEpochDay());
+        assertThat(snapshot.getZone()).isEqualTo(goalDateTime.getZone());
+        assertThat(snapshot.getOffset()).isEqualTo(ZoneOffset.ofHours(2));
+        assertThat(snapshot.toZonedDateTime()).isEqualTo(goalDateTime);
+        assertThat(snapshot.toOffsetDateTime()).isEqualTo(goalDateTime.toOffsetDateTime());
+        assertThat(snapshot.toOffsetTime()).isEqualTo(goalDateTime.toOffsetDateTime().toOffsetTime());
+        assertThat(snapshot.toLocalDateTime()).isEqualTo(goalDateTime.toLocalDateTime());
+        assertThat(snapshot.toLocalDate()).isEqualTo(goalDateTime.toLocalDate());
+        assertThat(snapshot.toLocalTime()).isEqualTo(goalDateTime.toLocalTime());
+        assertThat(snapshot).isEqualTo(TimeMachine.snapshot());
+        assertThat(TimeMachine.zoneOfNow()).isEqualTo(goalDateTime.getZone());
+    }
+
+    @Test
+    void snapshot_whenNotTraveled() {
+        // WHEN
+        TimeSnapshot snapshot = TimeMachine.snapshot();
+
+        // THEN
+        assertThat(snapshot.toZonedDateTime()).isCloseTo(ZonedDateTime.now(), within(1, SECONDS));
+        assertThat(snapshot.toLocalDate()).isEqualTo(snapshot.toZonedDateTime().toLocalDate());
+        assertThat(snapshot.getZone()).isEqualTo(ZoneId.systemDefault());
+    }
+
+    @Test
+    void coarseClock() throws InterruptedException {
+        try {
+            // GIVEN
+            TimeMachine.useCoarseClock(Duration.ofMillis(5));
+            Instant first = TimeMachine.instantOfNow();
+
+            // WHEN
+            Thread.sleep(50);
+
+            // THEN
+            assertThat(TimeMachine.instantOfNow()).isAfter(first).isCloseTo(Instant.now(), within(1, SECONDS));
+            assertThat(TimeMachine.epochMilliOfNow()).isCloseTo(System.currentTimeMillis(), within(1_000L));
+
+            LocalDateTime goalDateTime = LocalDateTime.now().plusDays(3);
+            TimeMachine.travelAt(goalDateTime);
+            assertThat(TimeMachine.localDateTimeOfNow()).isEqualTo(goalDateTime);
+
+            TimeMachine.reset();
+            assertAllTimesCloseTo(
+                    Instant.now(),
+                    ZonedDateTime.now(),
+                    OffsetDateTime.now(),
+                    OffsetTime.now(),
+                    LocalDateTime.now(),
+                    LocalDate.now(),
+                    LocalTime.now());
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void coarseClock_keepsTickingForZoneTravelsAfterReplaced() throws InterruptedException {
+        try {
+            // GIVEN
+            TimeMachine.useCoarseClock(Duration.ofMillis(5));
+            TimeMachine.travelAt(ZoneOffset.ofHours(5));
+            TimeMachine.useSystemClock();
+            Instant first = TimeMachine.instantOfNow();
+
+            // WHEN
+            Thread.sleep(50);
+
+            // THEN
+            assertThat(TimeMachine.instantOfNow()).isAfter(first);
+            assertZoneIs(ZoneOffset.ofHours(5));
+
+            TimeMachine.reset();
+            assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void preciseClock() {
+        try {
+            // GIVEN
+            TimeMachine.usePreciseClock(Duration.ofMillis(10));
+            long previous = TimeMachine.epochNanoOfNow();
+
+            // WHEN
+            boolean strictlyMonotonic = true;
+            for (int i = 0; i < 100_000; i++) {
+                long next = TimeMachine.epochNanoOfNow();
+                strictlyMonotonic &= next > previous;
+                previous = next;
+            }
+
+            // THEN
+            assertThat(strictlyMonotonic).isTrue();
+            assertThat(TimeMachine.instantOfNow()).isCloseTo(Instant.now(), within(1, SECONDS));
+            assertThat(TimeMachine.zoneOfNow()).isEqualTo(ZoneId.systemDefault());
+
+            Instant goalInstant = Instant.parse("2021-03-28T00:30:00Z");
+            TimeMachine.travelAt(goalInstant);
+            assertThat(TimeMachine.instantOfNow()).isEqualTo(goalInstant);
+
+            TimeMachine.reset();
+            assertAllTimesCloseTo(
+                    Instant.now(),
+                    ZonedDateTime.now(),
+                    OffsetDateTime.now(),
+                    OffsetTime.now(),
+                    LocalDateTime.now(),
+                    LocalDate.now(),
+                    LocalTime.now());
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void recordingAndReplayClock(@TempDir Path directory) {
+        Path recording = directory.resolve("time.rec");
+        try {
+            // GIVEN
+            TimeMachine.useRecordingClock(recording);
+            long[] recorded = new long[10_000];
+            for (int i = 0; i < recorded.length; i++) {
+                recorded[i] = TimeMachine.epochNanoOfNow();
+            }
+
+            // WHEN
+            TimeMachine.useReplayClock(recording);
+            long[] replayed = new long[recorded.length];
+            for (int i = 0; i < replayed.length; i++) {
+                replayed[i] = TimeMachine.epochNanoOfNow();
+            }
+
+            // THEN
+            assertThat(replayed).isEqualTo(recorded);
+            assertThat(TimeMachine.epochNanoOfNow()).isEqualTo(recorded[recorded.length - 1]);
+            assertThat(TimeMachine.zoneOfNow()).isEqualTo(ZoneId.systemDefault());
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void recordingAndReplayClock_recordsOnlyTheReadsOfTheTimes(@TempDir Path directory) {
+        Path recording = directory.resolve("time.rec");
+        try {
+            // GIVEN
+            TimeMachine.useRecordingClock(recording);
+            long[] recorded = new long[3];
+            recorded[0] = TimeMachine.epochNanoOfNow();
+            TimeMachine.travelAt(ZoneId.of("Europe/Budapest"));
+            recorded[1] = TimeMachine.epochNanoOfNow();
+            TimeMachine.reset();
+            recorded[2] = TimeMachine.epochNanoOfNow();
+            TimeMachine.useSystemClock();
+
+            // WHEN
+            TimeMachine.useReplayClock(recording);
+            long[] replayed = new long[recorded.length];
+            for (int i = 0; i < replayed.length; i++) {
+                replayed[i] = TimeMachine.epochNanoOfNow();
+            }
+
+            // THEN
+            assertThat(replayed).isEqualTo(recorded);
+        } finally {
+            TimeMachine.useSystemClock();
+        }
+    }
+
+    @Test
+    void useSystemClock_looksUpTheDefaultZoneAgain() {
+        TimeZone originalZone = TimeZone.getDefault();
+        ZoneId newZone = ZoneId.of("Asia/Tokyo").equals(originalZone.toZoneId()) ? ZoneId.of("Europe/Budapest") : ZoneId.of("Asia/Tokyo");
+        try {
+            // GIVEN
+            TimeZone.setDefault(TimeZone.getTimeZone(newZone));
+
+            // WHEN
+            TimeMachine.useSystemClock();
+
+            // THEN
+            assertThat(TimeMachine.zoneOfNow()).isEqualTo(newZone);
+        } finally {
+            TimeZone.setDefault(originalZone);
+            TimeMachine.useSystemClock();
+        }
+    }
+
     @Test
     void whenNotTraveled() {
         // GIVEN
@@ -290,6 +642,10 @@ class TimeMachineTest {
         assertThat(TimeMachine.localDateTimeOfNow()).describedAs("LocalDateTime").isCloseTo(localDateTime, within(1, SECONDS));
         assertThat(TimeMachine.localDateOfNow()).describedAs("LocalDate").isEqualTo(localDate);
         assertThat(TimeMachine.localTimeOfNow()).describedAs("LocalTime").isCloseTo(localTime, within(1, SECONDS));
+        assertThat(TimeMachine.epochMilliOfNow()).describedAs("Epoch milli").isCloseTo(instant.toEpochMilli(), within(1_000L));
+        assertThat(TimeMachine.epochSecondOfNow()).describedAs("Epoch second").isCloseTo(instant.getEpochSecond(), within(1L));
+        assertThat(TimeMachine.epochNanoOfNow() / 1_000_000L).describedAs("Epoch nano").isCloseTo(instant.toEpochMilli(), within(1_000L));
+        assertThat(TimeMachine.epochDayOfNow()).describedAs("Epoch day").isEqualTo(localDate.toEpochDay());
     }
 
     private void assertZoneIs(ZoneId expectedZoneId) {
@@ -0,0 +1,58 @@
+package com.szityu.oss.timemachine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneOffsetTableTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Budapest", "America/New_York", "Australia/Lord_Howe", "Asia/Tokyo", "UTC", "-03:30"})
+    void offsetAt_sameAsZoneRules(String zoneId) {
+        // GIVEN
+        ZoneId zone = ZoneId.of(zoneId);
+        long origin = Instant.parse("2021-03-28T01:00:00Z").getEpochSecond();
+        ZoneOffsetTable table = ZoneOffsetTable.of(zone, origin);
+
+        // WHEN
+        for (long epochSecond = origin - 6 * 366 * 86_400L; epochSecond < origin + 6 * 366 * 86_400L; epochSecond += 3_599) {
+
+            // THEN
+            assertThat(table.offsetAt(epochSecond))
+                    .describedAs("Offset at %s", Instant.ofEpochSecond(epochSecond))
+                    .isEqualTo(zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Budapest", "America/New_York"})
+    void offsetAt_exactlyAtTransitions(String zoneId) {
+        // GIVEN
+        ZoneId zone = ZoneId.of(zoneId);
+        Instant transition = zone.getRules().nextTransition(Instant.parse("2021-01-01T00:00:00Z")).getInstant();
+        ZoneOffsetTable table = ZoneOffsetTable.of(zone, transition.getEpochSecond());
+
+        // THEN
+        for (long epochSecond = transition.getEpochSecond() - 2; epochSecond <= transition.getEpochSecond() + 2; epochSecond++) {
+            assertThat(table.offsetAt(epochSecond)).isEqualTo(zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Budapest", "UTC"})
+    void of_sharesTablesForCloseInstants(String zoneId) {
+        // GIVEN
+        ZoneId zone = ZoneId.of(zoneId);
+        long origin = Instant.parse("2021-03-28T01:00:00Z").getEpochSecond();
+
+        // WHEN
+        ZoneOffsetTable table = ZoneOffsetTable.of(zone, origin);
+
+        // THEN
+        assertThat(ZoneOffsetTable.of(zone, origin + 86_400)).isSameAs(table);
+    }
+}
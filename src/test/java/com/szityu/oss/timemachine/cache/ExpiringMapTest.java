@@ -0,0 +1,196 @@
+package com.szityu.oss.timemachine.cache;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringMapTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    private final List<ExpiringMap<?, ?>> maps = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        maps.forEach(ExpiringMap::close);
+        TimeMachine.reset();
+    }
+
+    @Test
+    void get_returnsTheValueOnlyWithinTheTimeToLive() {
+        // GIVEN
+        ExpiringMap<String, String> map = track(new ExpiringMap<>(Duration.ofMinutes(1)));
+        map.put("key", "value");
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(59));
+        String beforeExpiry = map.get("key");
+        TimeMachine.advance(Duration.ofSeconds(1));
+        String afterExpiry = map.get("key");
+
+        // THEN
+        assertThat(beforeExpiry).isEqualTo("value");
+        assertThat(afterExpiry).isNull();
+    }
+
+    @Test
+    void put_acceptsTheTimeToLiveOfTheEntry() {
+        // GIVEN
+        ExpiringMap<String, String> map = track(new ExpiringMap<>(Duration.ofMinutes(1)));
+        map.put("short", "value", Duration.ofSeconds(10));
+        map.put("default", "value");
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(10));
+
+        // THEN
+        assertThat(map.get("short")).isNull();
+        assertThat(map.get("default")).isEqualTo("value");
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_renewsTheTimeToLiveAfterAccess() {
+        // GIVEN
+        ExpiringMap<String, String> map = track(new ExpiringMap<>(Duration.ofMinutes(1), ExpiringMap.Expiry.AFTER_ACCESS, 100));
+        map.put("read", "value");
+        map.put("unread", "value");
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(40));
+        map.get("read");
+        TimeMachine.advance(Duration.ofSeconds(40));
+        int sizeAfterFirstExpiry = map.size();
+        String renewed = map.get("read");
+        TimeMachine.advance(Duration.ofMinutes(1));
+
+        // THEN
+        assertThat(sizeAfterFirstExpiry).isEqualTo(1);
+        assertThat(renewed).isEqualTo("value");
+        assertThat(map.get("unread")).isNull();
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @Test
+    void travel_purgesTheExpiredEntriesInBulk() {
+        // GIVEN
+        ExpiringMap<Integer, Integer> map = track(new ExpiringMap<>(Duration.ofHours(1)));
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i, i, Duration.ofSeconds(1 + i % 60));
+        }
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(30));
+        int sizeAfter30Seconds = map.size();
+        TimeMachine.travelAt(GOAL_INSTANT.plus(Duration.ofDays(1)));
+
+        // THEN
+        assertThat(sizeAfter30Seconds).isEqualTo(4990);
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @Test
+    void travel_inTheScopeOfAnotherThreadDoesNotPurge() throws Exception {
+        // GIVEN
+        ExpiringMap<String, String> map = track(new ExpiringMap<>(Duration.ofMinutes(1)));
+        map.put("key", "value");
+
+        // WHEN
+        Thread parallelTest = new Thread(() -> TimeMachine.runAt(GOAL_INSTANT, () -> TimeMachine.advance(Duration.ofDays(1))));
+        parallelTest.start();
+        parallelTest.join();
+
+        // THEN
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get("key")).isEqualTo("value");
+    }
+
+    @Test
+    void put_evictsEntriesBeyondTheMaximumSizeGivingSecondChanceToReadOnes() {
+        // GIVEN
+        ExpiringMap<String, String> map = track(new ExpiringMap<>(Duration.ofMinutes(1), ExpiringMap.Expiry.AFTER_WRITE, 3));
+        map.put("a", "a");
+        map.put("b", "b");
+        map.put("c", "c");
+        map.get("a");
+
+        // WHEN
+        map.put("d", "d");
+
+        // THEN
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get("a")).isEqualTo("a");
+        assertThat(map.get("b")).isNull();
+        assertThat(map.get("c")).isEqualTo("c");
+        assertThat(map.get("d")).isEqualTo("d");
+    }
+
+    @Test
+    void computeIfAbsent_computesAgainAfterExpiry() {
+        // GIVEN
+        ExpiringMap<String, Integer> map = track(new ExpiringMap<>(Duration.ofMinutes(1)));
+        AtomicInteger computations = new AtomicInteger();
+
+        // WHEN
+        Integer first = map.computeIfAbsent("key", key -> computations.incrementAndGet());
+        Integer cached = map.computeIfAbsent("key", key -> computations.incrementAndGet());
+        TimeMachine.advance(Duration.ofMinutes(1));
+        Integer recomputed = map.computeIfAbsent("key", key -> computations.incrementAndGet());
+
+        // THEN
+        assertThat(first).isEqualTo(1);
+        assertThat(cached).isEqualTo(1);
+        assertThat(recomputed).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_keepsTheMaximumSizeUnderConcurrentLoad() throws Exception {
+        // GIVEN
+        ExpiringMap<Integer, Integer> map = track(new ExpiringMap<>(Duration.ofMinutes(1), ExpiringMap.Expiry.AFTER_WRITE, 1000));
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int writer = 0; writer < 4; writer++) {
+            futures.add(writers.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    int key = ThreadLocalRandom.current().nextInt(10_000);
+                    map.put(key, key);
+                    map.get(ThreadLocalRandom.current().nextInt(10_000));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        writers.shutdown();
+        map.cleanUp();
+
+        // THEN
+        assertThat(map.size()).isEqualTo(1000);
+    }
+
+    private <K, V> ExpiringMap<K, V> track(final ExpiringMap<K, V> map) {
+        maps.add(map);
+        return map;
+    }
+}
@@ -0,0 +1,271 @@
+package com.szityu.oss.timemachine.concurrent;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HierarchicalTimingWheelTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    private final List<Instant> expiries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void expireDue_expiresTimeoutsOnlyAfterTheirDeadline() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+        wheel.schedule(this::recordExpiry, 5, TimeUnit.MILLISECONDS);
+        wheel.schedule(this::recordExpiry, 2, TimeUnit.MILLISECONDS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(1));
+        int expiredAfter1 = wheel.expireDue();
+        TimeMachine.advance(Duration.ofMillis(1));
+        int expiredAfter2 = wheel.expireDue();
+        TimeMachine.advance(Duration.ofMillis(3));
+        int expiredAfter5 = wheel.expireDue();
+
+        // THEN
+        assertThat(expiredAfter1).isEqualTo(0);
+        assertThat(expiredAfter2).isEqualTo(1);
+        assertThat(expiredAfter5).isEqualTo(1);
+        assertThat(expiries).containsExactly(GOAL_INSTANT.plusMillis(2), GOAL_INSTANT.plusMillis(5));
+        assertThat(wheel.pendingTimeouts()).isEqualTo(0);
+    }
+
+    @Test
+    void expireDue_cascadesTimeoutsFromHigherLevels() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+        List<Long> delays = new ArrayList<>();
+        for (long delay = 3; delay < 2000; delay = delay * 3 / 2 + 1) {
+            delays.add(delay);
+            long expected = delay;
+            wheel.schedule(() -> assertThat(TimeMachine.instantOfNow()).isEqualTo(GOAL_INSTANT.plusMillis(expected)),
+                    delay, TimeUnit.MILLISECONDS);
+        }
+
+        // WHEN
+        int expired = 0;
+        for (int step = 0; step < 2000; step++) {
+            TimeMachine.advance(Duration.ofMillis(1));
+            expired += wheel.expireDue();
+        }
+
+        // THEN
+        assertThat(expired).isEqualTo(delays.size());
+    }
+
+    @Test
+    void expireDue_expiresInDeadlineOrderAfterAJump() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 2);
+        AtomicInteger order = new AtomicInteger();
+        List<Integer> expiredOrder = new CopyOnWriteArrayList<>();
+        for (int hours : new int[]{5, 1, 3}) {
+            wheel.schedule(() -> expiredOrder.add(hours), hours, TimeUnit.HOURS);
+        }
+        wheel.schedule(() -> order.incrementAndGet(), 2, TimeUnit.DAYS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofDays(1));
+        int expired = wheel.expireDue();
+
+        // THEN
+        assertThat(expired).isEqualTo(3);
+        assertThat(expiredOrder).containsExactly(1, 3, 5);
+        assertThat(order.get()).isEqualTo(0);
+        assertThat(wheel.pendingTimeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void expireDue_doesNotExpireEarlyAfterTravelingBack() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+        TimeMachine.advance(Duration.ofHours(1));
+        wheel.expireDue();
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        wheel.schedule(this::recordExpiry, 1, TimeUnit.SECONDS);
+        int expiredBeforeDeadline = wheel.expireDue();
+        TimeMachine.advance(Duration.ofSeconds(1));
+        int expiredAtDeadline = wheel.expireDue();
+
+        // THEN
+        assertThat(expiredBeforeDeadline).isEqualTo(0);
+        assertThat(expiredAtDeadline).isEqualTo(1);
+    }
+
+    @Test
+    void cancel_preventsExpiry() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+        HierarchicalTimingWheel.Timeout cancelledBeforeTransfer = wheel.schedule(this::recordExpiry, 10, TimeUnit.MILLISECONDS);
+        HierarchicalTimingWheel.Timeout cancelledInBucket = wheel.schedule(this::recordExpiry, 20, TimeUnit.MILLISECONDS);
+        HierarchicalTimingWheel.Timeout expiring = wheel.schedule(this::recordExpiry, 30, TimeUnit.MILLISECONDS);
+        cancelledBeforeTransfer.cancel();
+        wheel.expireDue();
+
+        // WHEN
+        boolean cancelled = cancelledInBucket.cancel();
+        TimeMachine.advance(Duration.ofMillis(30));
+        wheel.expireDue();
+
+        // THEN
+        assertThat(cancelled).isTrue();
+        assertThat(cancelledInBucket.isCancelled()).isTrue();
+        assertThat(expiring.isExpired()).isTrue();
+        assertThat(expiring.cancel()).isFalse();
+        assertThat(expiries).containsExactly(GOAL_INSTANT.plusMillis(30));
+    }
+
+    @Test
+    void schedule_isSafeFromManyThreads() throws Exception {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 64, 4);
+        AtomicInteger expired = new AtomicInteger();
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int producer = 0; producer < 4; producer++) {
+            futures.add(producers.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    HierarchicalTimingWheel.Timeout timeout = wheel.schedule(expired::incrementAndGet, i, TimeUnit.MILLISECONDS);
+                    if (i % 2 == 0) {
+                        timeout.cancel();
+                    }
+                    if (i % 1000 == 0) {
+                        wheel.expireDue();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        producers.shutdown();
+        TimeMachine.advance(Duration.ofSeconds(10));
+        wheel.expireDue();
+
+        // THEN
+        assertThat(expired.get()).isEqualTo(20_000);
+        assertThat(wheel.pendingTimeouts()).isEqualTo(0);
+    }
+
+    @Test
+    void expireDue_letsTasksScheduleMoreThanTheBacklogLimit() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+        int count = 2 * HierarchicalTimingWheel.MAX_BACKLOG;
+        AtomicInteger expired = new AtomicInteger();
+        wheel.schedule(() -> {
+            for (int i = 0; i < count; i++) {
+                wheel.schedule(expired::incrementAndGet, 1, TimeUnit.MILLISECONDS).cancel();
+                wheel.schedule(expired::incrementAndGet, 1, TimeUnit.MILLISECONDS);
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        TimeMachine.advance(Duration.ofMillis(1));
+
+        // WHEN
+        int expiredByTask = wheel.expireDue();
+        TimeMachine.advance(Duration.ofMillis(1));
+        wheel.expireDue();
+
+        // THEN
+        assertThat(expiredByTask).isEqualTo(1);
+        assertThat(expired.get()).isEqualTo(count);
+        assertThat(wheel.pendingTimeouts()).isEqualTo(0);
+    }
+
+    @Test
+    void start_expiresTimeoutsAfterTravels() throws Exception {
+        // GIVEN
+        CountDownLatch expired = new CountDownLatch(1);
+        try (HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(10), 512, 4).start()) {
+            wheel.schedule(expired::countDown, 1, TimeUnit.HOURS);
+
+            // WHEN
+            boolean expiredBeforeTravel = expired.await(50, TimeUnit.MILLISECONDS);
+            TimeMachine.advance(Duration.ofHours(1));
+
+            // THEN
+            assertThat(expiredBeforeTravel).isFalse();
+            assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void start_keepsExpiringAfterATaskFails() throws Exception {
+        // GIVEN
+        CountDownLatch expired = new CountDownLatch(1);
+        try (HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(10), 512, 4).start()) {
+            wheel.schedule(() -> {
+                throw new IllegalStateException("Failing task");
+            }, 1, TimeUnit.HOURS);
+            TimeMachine.advance(Duration.ofHours(1));
+            await(() -> wheel.pendingTimeouts() == 0);
+
+            // WHEN
+            wheel.schedule(expired::countDown, 1, TimeUnit.HOURS);
+            TimeMachine.advance(Duration.ofHours(1));
+
+            // THEN
+            assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void schedule_isRejectedAfterClose() {
+        // GIVEN
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 8, 3);
+
+        // WHEN
+        wheel.close();
+
+        // THEN
+        assertThatThrownBy(() -> wheel.schedule(this::recordExpiry, 1, TimeUnit.SECONDS))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private void recordExpiry() {
+        expiries.add(TimeMachine.instantOfNow());
+    }
+}
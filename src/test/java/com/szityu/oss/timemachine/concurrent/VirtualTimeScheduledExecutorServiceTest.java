@@ -0,0 +1,253 @@
+package com.szityu.oss.timemachine.concurrent;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualTimeScheduledExecutorServiceTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void directMode_runsDueTasksInOrderWhenTimeIsAdvanced() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.schedule(() -> events.add("b"), 2, TimeUnit.SECONDS);
+        scheduler.schedule(() -> events.add("a"), 1, TimeUnit.SECONDS);
+        scheduler.schedule(() -> events.add("c"), 2, TimeUnit.SECONDS);
+        scheduler.schedule(() -> events.add("d"), 1, TimeUnit.HOURS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(999));
+        List<String> eventsBeforeDue = new ArrayList<>(events);
+        TimeMachine.advance(Duration.ofMillis(1001));
+
+        // THEN
+        assertThat(eventsBeforeDue).isEmpty();
+        assertThat(events).containsExactly("a", "b", "c");
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_runsTasksWithoutDelayImmediately() throws Exception {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+
+        // WHEN
+        ScheduledFuture<Instant> future = scheduler.schedule(TimeMachine::instantOfNow, 0, TimeUnit.SECONDS);
+
+        // THEN
+        assertThat(future.isDone()).isTrue();
+        assertThat(future.get()).isEqualTo(GOAL_INSTANT);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_fixedRateCatchesUpAfterAJump() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.scheduleAtFixedRate(() -> events.add(TimeMachine.instantOfNow().toString()), 1, 1, TimeUnit.SECONDS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(3500));
+
+        // THEN
+        assertThat(events).hasSize(3);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_fixedDelayIsMeasuredFromTheEndOfTheRun() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.scheduleWithFixedDelay(() -> events.add("run"), 1, 1, TimeUnit.SECONDS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(3500));
+
+        // THEN
+        assertThat(events).hasSize(1);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_tasksMovingTimeRunTheTasksDueByThen() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.schedule(() -> events.add("later"), 10, TimeUnit.SECONDS);
+        scheduler.schedule(() -> {
+            events.add("first");
+            TimeMachine.advance(Duration.ofSeconds(10));
+            events.add("moved");
+        }, 1, TimeUnit.SECONDS);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(1));
+
+        // THEN
+        assertThat(events).containsExactly("first", "moved", "later");
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_ignoresTravelsInTheScopesOfOtherThreads() throws Exception {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.schedule(() -> events.add("a"), 1, TimeUnit.HOURS);
+
+        // WHEN
+        Thread parallelTest = new Thread(() -> TimeMachine.runAt(GOAL_INSTANT, () -> TimeMachine.advance(Duration.ofDays(1))));
+        parallelTest.start();
+        parallelTest.join();
+        List<String> eventsAfterParallelTravel = new ArrayList<>(events);
+        TimeMachine.advance(Duration.ofHours(1));
+
+        // THEN
+        assertThat(eventsAfterParallelTravel).isEmpty();
+        assertThat(events).containsExactly("a");
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void directMode_isCollectedWithoutShutdown() throws Exception {
+        // GIVEN
+        WeakReference<VirtualTimeScheduledExecutorService> scheduler = new WeakReference<>(schedulerWithPendingTask());
+
+        // WHEN
+        for (int attempt = 0; attempt < 100 && scheduler.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        TimeMachine.advance(Duration.ofHours(1));
+
+        // THEN
+        assertThat(scheduler.get()).isNull();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void cancel_removesTheTask() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        ScheduledFuture<?> future = scheduler.schedule(() -> events.add("cancelled"), 1, TimeUnit.SECONDS);
+
+        // WHEN
+        future.cancel(false);
+        TimeMachine.advance(Duration.ofSeconds(1));
+
+        // THEN
+        assertThat(events).isEmpty();
+        assertThat(future.getDelay(TimeUnit.MILLISECONDS)).isEqualTo(0);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void getDelay_isMeasuredByTheTimeMachine() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        ScheduledFuture<?> future = scheduler.schedule(() -> events.add("run"), 1, TimeUnit.MINUTES);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(15));
+
+        // THEN
+        assertThat(future.getDelay(TimeUnit.SECONDS)).isEqualTo(45);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void workers_runDueTasksAfterAdvance() throws Exception {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService(2, false);
+        CountDownLatch ran = new CountDownLatch(2);
+        scheduler.schedule(ran::countDown, 1, TimeUnit.SECONDS);
+        scheduler.schedule(ran::countDown, 2, TimeUnit.SECONDS);
+
+        // WHEN
+        boolean ranBeforeAdvance = ran.await(50, TimeUnit.MILLISECONDS);
+        TimeMachine.advance(Duration.ofSeconds(2));
+
+        // THEN
+        assertThat(ranBeforeAdvance).isFalse();
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void workers_autoAdvanceToTheNextDueTask() throws Exception {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService(1, true);
+
+        // WHEN
+        ScheduledFuture<Instant> future = scheduler.schedule(TimeMachine::instantOfNow, 1, TimeUnit.DAYS);
+
+        // THEN
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(GOAL_INSTANT.plus(Duration.ofDays(1)));
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void shutdown_cancelsPeriodicButRunsDelayedTasks() throws Exception {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService(1, false);
+        ScheduledFuture<?> periodic = scheduler.scheduleAtFixedRate(() -> events.add("periodic"), 1, 1, TimeUnit.SECONDS);
+        ScheduledFuture<?> delayed = scheduler.schedule(() -> events.add("delayed"), 1, TimeUnit.SECONDS);
+
+        // WHEN
+        scheduler.shutdown();
+        TimeMachine.advance(Duration.ofSeconds(1));
+
+        // THEN
+        assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(periodic.isCancelled()).isTrue();
+        assertThat(delayed.isDone()).isTrue();
+        assertThat(events).containsExactly("delayed");
+    }
+
+    @Test
+    void shutdownNow_returnsPendingTasks() {
+        // GIVEN
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService(1, false);
+        scheduler.schedule(() -> events.add("pending"), 1, TimeUnit.SECONDS);
+
+        // WHEN
+        List<Runnable> pending = scheduler.shutdownNow();
+        TimeMachine.advance(Duration.ofSeconds(1));
+
+        // THEN
+        assertThat(pending).hasSize(1);
+        assertThat(scheduler.isShutdown()).isTrue();
+        assertThat(events).isEmpty();
+    }
+
+    private VirtualTimeScheduledExecutorService schedulerWithPendingTask() {
+        VirtualTimeScheduledExecutorService scheduler = new VirtualTimeScheduledExecutorService();
+        scheduler.schedule(() -> events.add("a"), 1, TimeUnit.HOURS);
+        return scheduler;
+    }
+}
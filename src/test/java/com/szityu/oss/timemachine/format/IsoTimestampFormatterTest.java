@@ -0,0 +1,122 @@
+package com.szityu.oss.timemachine.format;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IsoTimestampFormatterTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+    private static final DateTimeFormatter MILLIS_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXXXX");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void format_matchesDateTimeFormatterAcrossTransitions() {
+        // GIVEN
+        IsoTimestampFormatter formatter = new IsoTimestampFormatter(3);
+        byte[] destination = new byte[formatter.maxLength()];
+        ZoneId[] zones = {ZoneOffset.UTC, ZoneId.of("Europe/Budapest"), ZoneId.of("America/New_York"),
+                ZoneId.of("Asia/Kolkata"), ZoneId.of("Australia/Lord_Howe")};
+        long start = GOAL_INSTANT.minusSeconds(3600).toEpochMilli();
+
+        for (ZoneId zone : zones) {
+            // A day around the transition of Europe in 7 second and 13 millisecond steps
+            for (long millis = start; millis < start + 86_400_000L; millis += 7013) {
+                // WHEN
+                int end = formatter.format(millis * 1_000_000, zone, destination, 0);
+
+                // THEN
+                String expected = MILLIS_FORMATTER.format(Instant.ofEpochMilli(millis).atZone(zone));
+                assertThat(new String(destination, 0, end, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void format_writesTheFractionDigitsAndTheOffset() {
+        // GIVEN
+        long epochNanos = GOAL_INSTANT.getEpochSecond() * 1_000_000_000L + 123_456_789;
+        ZoneId zone = ZoneId.of("Europe/Budapest");
+        char[] chars = new char[40];
+        ByteBuffer direct = ByteBuffer.allocateDirect(40);
+        ByteBuffer heap = ByteBuffer.allocate(40);
+        heap.put((byte) '[');
+
+        // WHEN
+        int noFractionEnd = new IsoTimestampFormatter(0).format(epochNanos, ZoneOffset.UTC, chars, 0);
+        String noFraction = new String(chars, 0, noFractionEnd);
+        int nanosEnd = new IsoTimestampFormatter(9).format(epochNanos, zone, chars, 0);
+        String nanos = new String(chars, 0, nanosEnd);
+        new IsoTimestampFormatter(6).format(epochNanos, ZoneOffset.ofHoursMinutesSeconds(-3, -30, -15), direct);
+        new IsoTimestampFormatter(1).format(epochNanos, zone, heap);
+
+        // THEN
+        assertThat(noFraction).isEqualTo("2021-03-28T00:30:00Z");
+        assertThat(nanos).isEqualTo("2021-03-28T01:30:00.123456789+01:00");
+        assertThat(asString(direct)).isEqualTo("2021-03-27T20:59:45.123456-03:30:15");
+        assertThat(asString(heap)).isEqualTo("[2021-03-28T01:30:00.1+01:00");
+    }
+
+    @Test
+    void format_rejectsABufferShorterThanTheTimestamp() {
+        // GIVEN
+        IsoTimestampFormatter formatter = new IsoTimestampFormatter(3);
+        byte[] backing = new byte[40];
+        ByteBuffer heap = ByteBuffer.wrap(backing, 0, 30);
+        heap.position(10);
+        ByteBuffer direct = ByteBuffer.allocateDirect(28);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> formatter.format(GOAL_INSTANT.getEpochSecond() * 1_000_000_000L, ZoneOffset.UTC, heap))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThatThrownBy(() -> formatter.format(0, ZoneId.of("Europe/Budapest"), direct))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(heap.position()).isEqualTo(10);
+        assertThat(backing).containsOnly(0);
+        assertThat(direct.position()).isEqualTo(0);
+    }
+
+    @Test
+    void formatNow_honoursTheTraveledTimeAndZone() {
+        // GIVEN
+        IsoTimestampFormatter formatter = new IsoTimestampFormatter(3);
+        byte[] destination = new byte[formatter.maxLength()];
+        int beforeEnd = formatter.formatNow(destination, 0);
+        String before = new String(destination, 0, beforeEnd, StandardCharsets.US_ASCII);
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.plusSeconds(3600).atZone(ZoneId.of("Europe/Budapest")));
+        int afterEnd = formatter.formatNow(destination, 0);
+
+        // THEN
+        assertThat(before).isNotEqualTo("2021-03-28T03:30:00.000+02:00");
+        assertThat(new String(destination, 0, afterEnd, StandardCharsets.US_ASCII)).isEqualTo("2021-03-28T03:30:00.000+02:00");
+    }
+
+    @Test
+    void constructor_rejectsInvalidFractionDigits() {
+        assertThatThrownBy(() -> new IsoTimestampFormatter(10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String asString(final ByteBuffer buffer) {
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
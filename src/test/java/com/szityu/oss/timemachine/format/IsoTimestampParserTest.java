@@ -0,0 +1,99 @@
+package com.szityu.oss.timemachine.format;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IsoTimestampParserTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @Test
+    void parse_matchesOffsetDateTime() {
+        // GIVEN
+        String[] timestamps = {"2021-03-28T00:30:00Z", "2021-03-28T03:30:00.123+02:00", "2020-02-29T23:59:59.999999999-11:30",
+                "1970-01-01T00:00Z", "1677-09-21T00:12:44-00:00:01", "2000-02-29T12:00:00.5+05:45", "1900-03-01T00:00:00,25Z"};
+
+        for (String timestamp : timestamps) {
+            // WHEN
+            long epochNanos = IsoTimestampParser.parseEpochNanos(timestamp);
+            long epochMillis = IsoTimestampParser.parseEpochMillis(timestamp);
+
+            // THEN
+            Instant expected = OffsetDateTime.parse(timestamp.replace(',', '.')).toInstant();
+            assertThat(Instant.ofEpochSecond(0, epochNanos)).as(timestamp).isEqualTo(expected);
+            assertThat(epochMillis).as(timestamp).isEqualTo(expected.toEpochMilli());
+        }
+    }
+
+    @Test
+    void parseEpochMillis_readsSignedYearsBeyondFourDigits() {
+        // GIVEN
+        String[] timestamps = {"+10000-01-01T00:00:00Z", "-0001-12-31T23:59:59.999+01:00", "+275760-09-13T00:00Z",
+                "-271821-04-20T00:00Z", OffsetDateTime.parse("+12345-06-07T08:09:10.5-03:00").toString()};
+
+        for (String timestamp : timestamps) {
+            // WHEN
+            long epochMillis = IsoTimestampParser.parseEpochMillis(timestamp);
+
+            // THEN
+            assertThat(epochMillis).as(timestamp).isEqualTo(OffsetDateTime.parse(timestamp).toInstant().toEpochMilli());
+        }
+    }
+
+    @Test
+    void parseEpochMillis_rejectsInvalidSignedYears() {
+        // GIVEN
+        String[] timestamps = {"+2021-03-28T00:30:00Z", "-0000-03-28T00:30:00Z", "-021-03-28T00:30:00Z",
+                "+1234567890-01-01T00:00:00Z", "+999999999-12-31T23:59:59Z"};
+
+        for (String timestamp : timestamps) {
+            // THEN
+            assertThatThrownBy(() -> IsoTimestampParser.parseEpochMillis(timestamp)).as(timestamp)
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+
+    @Test
+    void parse_readsBackTheFormattedTimestamps() {
+        // GIVEN
+        IsoTimestampFormatter formatter = new IsoTimestampFormatter(9);
+        byte[] line = new byte[8 + formatter.maxLength()];
+        ZoneId zone = ZoneId.of("America/New_York");
+        long start = GOAL_INSTANT.getEpochSecond() * 1_000_000_000L;
+
+        for (long epochNanos = start; epochNanos < start + 86_400_000_000_000L; epochNanos += 6_999_999_937L) {
+            // WHEN
+            int end = formatter.format(epochNanos, zone, line, 8);
+
+            // THEN
+            assertThat(IsoTimestampParser.parseEpochNanos(line, 8, end - 8)).isEqualTo(epochNanos);
+        }
+    }
+
+    @Test
+    void parse_rejectsInvalidTimestamps() {
+        // GIVEN
+        String[] timestamps = {"2021-03-28T00:30:00", "2021-02-29T00:30:00Z", "2021-03-28T24:00:00Z", "2021-03-28 00:30:00Z",
+                "2021-03-28T00:30:00.Z", "2021-03-28T00:30:00.1234567890Z", "2021-03-28T00:30:00+19:00", "2021-03-28T00:30:00Zz",
+                "2021-03-28T00:30:00+0200", "2021-3-28T00:30:00Z", "3000-01-01T00:00:00Z"};
+
+        for (String timestamp : timestamps) {
+            // WHEN
+            byte[] bytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+
+            // THEN
+            assertThatThrownBy(() -> IsoTimestampParser.parseEpochNanos(timestamp)).as(timestamp)
+                    .isInstanceOf(DateTimeParseException.class);
+            assertThatThrownBy(() -> IsoTimestampParser.parseEpochNanos(bytes, 0, bytes.length)).as(timestamp)
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.szityu.oss.timemachine.id;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void next_encodesTheTimeAndTheNode() {
+        // GIVEN
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        long first = generator.next();
+        long second = generator.next();
+        TimeMachine.advance(Duration.ofMillis(1));
+        long third = generator.next();
+
+        // THEN
+        assertThat(generator.instantOf(first)).isEqualTo(GOAL_INSTANT);
+        assertThat(SnowflakeIdGenerator.nodeIdOf(first)).isEqualTo(42);
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(generator.instantOf(third)).isEqualTo(GOAL_INSTANT.plusMillis(1));
+        assertThat(third & 0xFFF).isEqualTo(0);
+    }
+
+    @Test
+    void next_isMonotonicWhenTimeIsTraveledBack() {
+        // GIVEN
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long beforeTravel = generator.next();
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minusSeconds(10));
+        long afterTravel = generator.next();
+        TimeMachine.travelAt(GOAL_INSTANT.plusSeconds(10));
+        long afterCatchingUp = generator.next();
+
+        // THEN
+        assertThat(afterTravel).isEqualTo(beforeTravel + 1);
+        assertThat(generator.instantOf(afterCatchingUp)).isEqualTo(GOAL_INSTANT.plusSeconds(10));
+    }
+
+    @Test
+    void next_movesToTheNextMillisecondWhenTheSequenceOverflows() {
+        // GIVEN
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        long last = 0;
+        for (int i = 0; i <= 4096; i++) {
+            last = generator.next();
+        }
+
+        // THEN
+        assertThat(generator.instantOf(last)).isEqualTo(GOAL_INSTANT.plusMillis(1));
+        assertThat(last & 0xFFF).isEqualTo(0);
+    }
+
+    @Test
+    void next_isUniqueAcrossThreads() throws Exception {
+        // GIVEN
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        TimeMachine.travelAt(GOAL_INSTANT);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int thread = 0; thread < 4; thread++) {
+            futures.add(threads.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.next());
+                }
+                return ids;
+            }));
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            List<Long> idsOfThread = future.get();
+            assertThat(idsOfThread).isSorted();
+            ids.addAll(idsOfThread);
+        }
+        threads.shutdown();
+
+        // THEN
+        assertThat(ids).hasSize(40_000);
+    }
+
+    @Test
+    void next_failsBeforeTheEpoch() {
+        // GIVEN
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(GOAL_INSTANT, 1);
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minusMillis(1));
+
+        // THEN
+        assertThatThrownBy(generator::next).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
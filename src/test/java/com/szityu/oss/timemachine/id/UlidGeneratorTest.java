@@ -0,0 +1,63 @@
+package com.szityu.oss.timemachine.id;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UlidGeneratorTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void next_encodesTheTraveledTimeInCrockfordBase32() {
+        // GIVEN
+        UlidGenerator generator = new UlidGenerator();
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        String ulid = generator.next();
+
+        // THEN
+        assertThat(ulid).hasSize(26).matches("[0-7][0-9A-HJKMNP-TV-Z]{25}");
+        assertThat(ulid).startsWith("01F1V3SKT0");
+        assertThat(UlidGenerator.instantOf(ulid)).isEqualTo(GOAL_INSTANT);
+        assertThat(UlidGenerator.instantOf(ulid.toLowerCase())).isEqualTo(GOAL_INSTANT);
+    }
+
+    @Test
+    void next_isLexicographicallyMonotonicWhenTimeIsTraveledBack() {
+        // GIVEN
+        UlidGenerator generator = new UlidGenerator();
+        TimeMachine.travelAt(GOAL_INSTANT);
+        List<String> ulids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ulids.add(generator.next());
+        }
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minusSeconds(10));
+        ulids.add(generator.next());
+
+        // THEN
+        assertThat(ulids).isSorted().doesNotHaveDuplicates();
+        assertThat(UlidGenerator.instantOf(ulids.get(ulids.size() - 1))).isEqualTo(GOAL_INSTANT);
+    }
+
+    @Test
+    void instantOf_rejectsInvalidUlids() {
+        assertThatThrownBy(() -> UlidGenerator.instantOf("01F1V3SKT0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UlidGenerator.instantOf("01F1V3SKT0U000000000000000")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.szityu.oss.timemachine.id;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UuidV7GeneratorTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void next_generatesVersion7UuidsOfTheTraveledTime() {
+        // GIVEN
+        UuidV7Generator generator = new UuidV7Generator();
+        TimeMachine.travelAt(GOAL_INSTANT);
+
+        // WHEN
+        UUID uuid = generator.next();
+
+        // THEN
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7Generator.instantOf(uuid)).isEqualTo(GOAL_INSTANT);
+        assertThat(uuid.toString()).startsWith("0178763c-cf40-7");
+    }
+
+    @Test
+    void next_isMonotonicWhenTimeIsTraveledBack() {
+        // GIVEN
+        UuidV7Generator generator = new UuidV7Generator();
+        TimeMachine.travelAt(GOAL_INSTANT);
+        UUID beforeTravel = generator.next();
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minusSeconds(10));
+        UUID afterTravel = generator.next();
+
+        // THEN
+        assertThat(afterTravel.getMostSignificantBits()).isEqualTo(beforeTravel.getMostSignificantBits() + 1);
+        assertThat(afterTravel.toString()).isGreaterThan(beforeTravel.toString());
+        assertThat(UuidV7Generator.instantOf(afterTravel)).isEqualTo(GOAL_INSTANT);
+    }
+
+    @Test
+    void instantOf_rejectsOtherVersions() {
+        assertThatThrownBy(() -> UuidV7Generator.instantOf(UUID.randomUUID())).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.szityu.oss.timemachine.metrics;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BucketedCellsTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void add_dropsTheCountOfAWriterLateByAWholeRing() {
+        // GIVEN
+        BucketedCells cells = new BucketedCells(Duration.ofSeconds(10), 10, 1);
+        long lateBucket = cells.currentBucket();
+        TimeMachine.advance(Duration.ofSeconds(10));
+        long currentBucket = cells.currentBucket();
+        cells.add(currentBucket, 0, 5);
+
+        // WHEN
+        cells.add(lateBucket, 0, 3);
+
+        // THEN
+        assertThat(cells.sum(currentBucket, cells.buckets(), 0)).isEqualTo(5);
+    }
+
+    @Test
+    void add_startsTheCellAgainAfterTravelingBack() {
+        // GIVEN
+        BucketedCells cells = new BucketedCells(Duration.ofSeconds(10), 10, 1);
+        TimeMachine.advance(Duration.ofSeconds(10));
+        cells.add(cells.currentBucket(), 0, 5);
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT);
+        long currentBucket = cells.currentBucket();
+        cells.add(currentBucket, 0, 3);
+
+        // THEN
+        assertThat(cells.sum(currentBucket, cells.buckets(), 0)).isEqualTo(3);
+    }
+
+    @Test
+    void stripeLength_keepsTheRowsOfAdjacentStripesACacheLineApart() {
+        // WHEN
+        int single = BucketedCells.stripeLength(1, 1);
+        int narrow = BucketedCells.stripeLength(3, 2);
+        int exact = BucketedCells.stripeLength(4, 8);
+
+        // THEN
+        assertThat(single).isEqualTo(16);
+        assertThat(narrow).isEqualTo(16);
+        assertThat(exact).isEqualTo(40);
+    }
+}
@@ -0,0 +1,115 @@
+package com.szityu.oss.timemachine.metrics;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RollingCounterTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void sum_countsTheEventsWithinTheWindow() {
+        // GIVEN
+        RollingCounter counter = new RollingCounter(Duration.ofMinutes(1), 60);
+        for (int second = 0; second < 90; second++) {
+            counter.record(second);
+            TimeMachine.advance(Duration.ofSeconds(1));
+        }
+
+        // WHEN
+        long lastMinute = counter.sum();
+        long lastTenSeconds = counter.sum(Duration.ofSeconds(10));
+
+        // THEN
+        assertThat(lastMinute).isEqualTo((31 + 89) * 59 / 2);
+        assertThat(lastTenSeconds).isEqualTo((81 + 89) * 9 / 2);
+    }
+
+    @Test
+    void sum_dropsTheBucketsRolledOut() {
+        // GIVEN
+        RollingCounter counter = new RollingCounter(Duration.ofSeconds(1), 10);
+        counter.record();
+        counter.record();
+
+        // WHEN
+        long beforeRollover = counter.sum();
+        TimeMachine.advance(Duration.ofMillis(999));
+        long beforeEndOfWindow = counter.sum();
+        TimeMachine.advance(Duration.ofMillis(1));
+
+        // THEN
+        assertThat(beforeRollover).isEqualTo(2);
+        assertThat(beforeEndOfWindow).isEqualTo(2);
+        assertThat(counter.sum()).isEqualTo(0);
+    }
+
+    @Test
+    void record_startsAgainAfterTravelingAWholeRingAway() {
+        // GIVEN
+        RollingCounter counter = new RollingCounter(Duration.ofMinutes(1), 60);
+        counter.record(5);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMinutes(1));
+        counter.record(3);
+        long afterOneRing = counter.sum();
+        TimeMachine.travelAt(GOAL_INSTANT.minus(Duration.ofHours(1)));
+
+        // THEN
+        assertThat(afterOneRing).isEqualTo(3);
+        assertThat(counter.sum()).isEqualTo(0);
+    }
+
+    @Test
+    void record_countsEveryEventFromManyThreads() throws Exception {
+        // GIVEN
+        RollingCounter counter = new RollingCounter(Duration.ofMinutes(1), 60);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(threads.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counter.record();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        threads.shutdown();
+
+        // THEN
+        assertThat(counter.sum()).isEqualTo(800_000);
+    }
+
+    @Test
+    void constructor_rejectsWindowsNotDivisibleIntoBuckets() {
+        assertThatThrownBy(() -> new RollingCounter(Duration.ofSeconds(1), 7)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
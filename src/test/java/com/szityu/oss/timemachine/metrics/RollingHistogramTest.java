@@ -0,0 +1,82 @@
+package com.szityu.oss.timemachine.metrics;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingHistogramTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void valueAtPercentile_returnsTheUpperBoundOfTheBin() {
+        // GIVEN
+        RollingHistogram histogram = new RollingHistogram(Duration.ofMinutes(1), 60);
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        // WHEN
+        long median = histogram.valueAtPercentile(50);
+        long p99 = histogram.valueAtPercentile(99);
+        long max = histogram.valueAtPercentile(100);
+
+        // THEN
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(median).isEqualTo(511);
+        assertThat(p99).isEqualTo(1023);
+        assertThat(max).isEqualTo(1023);
+        assertThat(histogram.valueAtPercentile(0)).isEqualTo(1);
+    }
+
+    @Test
+    void valueAtPercentile_followsTheRollingWindow() {
+        // GIVEN
+        RollingHistogram histogram = new RollingHistogram(Duration.ofMinutes(1), 60);
+        histogram.record(1_000_000);
+        TimeMachine.advance(Duration.ofSeconds(30));
+        histogram.record(10);
+
+        // WHEN
+        long maxOfMinute = histogram.valueAtPercentile(100);
+        long maxOfSecond = histogram.valueAtPercentile(100, Duration.ofSeconds(1));
+        TimeMachine.advance(Duration.ofSeconds(30));
+
+        // THEN
+        assertThat(maxOfMinute).isEqualTo((1L << 20) - 1);
+        assertThat(maxOfSecond).isEqualTo(15);
+        assertThat(histogram.count()).isEqualTo(1);
+        assertThat(histogram.count(Duration.ofSeconds(29))).isEqualTo(0);
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(15);
+    }
+
+    @Test
+    void valueAtPercentile_isZeroWithoutValues() {
+        // GIVEN
+        RollingHistogram histogram = new RollingHistogram(Duration.ofSeconds(1), 10);
+
+        // WHEN
+        histogram.record(0);
+        TimeMachine.advance(Duration.ofSeconds(1));
+
+        // THEN
+        assertThat(histogram.valueAtPercentile(50)).isEqualTo(0);
+        assertThat(histogram.count()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.szityu.oss.timemachine.ratelimit;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void tryAcquire_allowsTheLimitWithinAWindow() {
+        // GIVEN
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(100, Duration.ofMinutes(1));
+
+        // WHEN
+        int acquired = 0;
+        for (int i = 0; i < 150; i++) {
+            acquired += limiter.tryAcquire() ? 1 : 0;
+        }
+
+        // THEN
+        assertThat(acquired).isEqualTo(100);
+        assertThat(limiter.availablePermits(0)).isEqualTo(0);
+    }
+
+    @Test
+    void tryAcquire_weightsThePreviousWindowAfterRollover() {
+        // GIVEN
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(100, Duration.ofMinutes(1));
+        limiter.tryAcquire(0, 100);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofSeconds(75));
+        long availableAfter75Seconds = limiter.availablePermits(0);
+        boolean acquiredTooMany = limiter.tryAcquire(0, 26);
+        boolean acquired = limiter.tryAcquire(0, 25);
+        TimeMachine.advance(Duration.ofMinutes(2));
+
+        // THEN
+        assertThat(availableAfter75Seconds).isEqualTo(25);
+        assertThat(acquiredTooMany).isFalse();
+        assertThat(acquired).isTrue();
+        assertThat(limiter.availablePermits(0)).isEqualTo(100);
+    }
+
+    @Test
+    void tryAcquire_limitsTheKeysSeparately() {
+        // GIVEN
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1_000_000, 1, Duration.ofSeconds(1));
+        limiter.tryAcquire(7);
+
+        // WHEN
+        boolean acquiredSameKey = limiter.tryAcquire(7);
+        boolean acquiredOtherKey = limiter.tryAcquire(8);
+
+        // THEN
+        assertThat(acquiredSameKey).isFalse();
+        assertThat(acquiredOtherKey).isTrue();
+    }
+
+    @Test
+    void tryAcquire_startsAgainAfterTravelingBack() {
+        // GIVEN
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, Duration.ofSeconds(1));
+        limiter.tryAcquire(0, 10);
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minus(Duration.ofHours(1)));
+
+        // THEN
+        assertThat(limiter.tryAcquire(0, 10)).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void constructor_rejectsLimitsNotFittingIntoTheState() {
+        assertThatThrownBy(() -> new SlidingWindowRateLimiter(SlidingWindowRateLimiter.MAX_LIMIT + 1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.szityu.oss.timemachine.ratelimit;
+
+import com.szityu.oss.timemachine.TimeMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final Instant GOAL_INSTANT = Instant.parse("2021-03-28T00:30:00Z");
+
+    @BeforeEach
+    void setUp() {
+        TimeMachine.travelAt(GOAL_INSTANT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeMachine.reset();
+    }
+
+    @Test
+    void tryAcquire_allowsBurstsUpToTheCapacity() {
+        // GIVEN
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 1, Duration.ofSeconds(1));
+
+        // WHEN
+        int acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            acquired += limiter.tryAcquire() ? 1 : 0;
+        }
+
+        // THEN
+        assertThat(acquired).isEqualTo(5);
+        assertThat(limiter.availableTokens(0)).isEqualTo(0);
+    }
+
+    @Test
+    void tryAcquire_refillsTokensAsTimeGoesOn() {
+        // GIVEN
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 10, Duration.ofSeconds(1));
+        limiter.tryAcquire(0, 5);
+
+        // WHEN
+        TimeMachine.advance(Duration.ofMillis(250));
+        long refilledAfter250Millis = limiter.availableTokens(0);
+        boolean acquiredThree = limiter.tryAcquire(0, 3);
+        TimeMachine.advance(Duration.ofHours(1));
+
+        // THEN
+        assertThat(refilledAfter250Millis).isEqualTo(2);
+        assertThat(acquiredThree).isFalse();
+        assertThat(limiter.availableTokens(0)).isEqualTo(5);
+        assertThat(limiter.tryAcquire(0, 6)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_limitsTheKeysSeparately() {
+        // GIVEN
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1_000_000, 1, 1, Duration.ofSeconds(1));
+        limiter.tryAcquire(42);
+
+        // WHEN
+        boolean acquiredSameKey = limiter.tryAcquire(42);
+        boolean acquiredOtherKey = limiter.tryAcquire(43);
+
+        // THEN
+        assertThat(acquiredSameKey).isFalse();
+        assertThat(acquiredOtherKey).isTrue();
+        assertThat(limiter.keys()).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void tryAcquire_isNotBlockedAfterTravelingBack() {
+        // GIVEN
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, Duration.ofSeconds(1));
+        limiter.tryAcquire(0, 2);
+
+        // WHEN
+        TimeMachine.travelAt(GOAL_INSTANT.minus(Duration.ofDays(1)));
+        boolean acquiredAfterTravel = limiter.tryAcquire(0, 2);
+
+        // THEN
+        assertThat(acquiredAfterTravel).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void tryAcquire_neverExceedsTheCapacityFromManyThreads() throws Exception {
+        // GIVEN
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1000, 1, Duration.ofSeconds(1));
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int thread = 0; thread < 4; thread++) {
+            futures.add(threads.submit(() -> {
+                int acquired = 0;
+                for (int i = 0; i < 10_000; i++) {
+                    acquired += limiter.tryAcquire() ? 1 : 0;
+                }
+                return acquired;
+            }));
+        }
+        int acquired = 0;
+        for (Future<Integer> future : futures) {
+            acquired += future.get();
+        }
+        threads.shutdown();
+
+        // THEN
+        assertThat(acquired).isEqualTo(1000);
+    }
+}